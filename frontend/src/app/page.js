@@ -17,50 +17,46 @@ const MainPage = () => {
   const [errors, setErrors] = useState({});
   const [notification, setNotification] = useState({ show: false, message: "", type: "" });
   const [currentTransaction, setCurrentTransaction] = useState(null);
-  const [pollingInterval, setPollingInterval] = useState(null);
 
-  const checkTransactionStatus = async (transactionId) => {
-    try {
-      const response = await fetch(`http://ec2-3-147-57-223.us-east-2.compute.amazonaws.com/v1/transacciones/${transactionId}/estado`);
-      const result = await response.json();
-
-      if (result.estado === "AUT") {
-        setNotification({
-          show: true,
-          message: "Transacción autorizada",
-          type: "success"
-        });
-        clearInterval(pollingInterval);
-        setCurrentTransaction(null);
-        setTimeout(() => {
-          window.location.reload();
-        }, 2000);
-      } else if (result.estado === "REC") {
-        setNotification({
-          show: true,
-          message: "Transacción rechazada",
-          type: "error"
-        });
-        clearInterval(pollingInterval);
-        setCurrentTransaction(null);
-        setTimeout(() => {
-          window.location.reload();
-        }, 2000);
-      }
-    } catch (error) {
-      console.error("Error al consultar estado:", error);
+  const applyTransactionStatus = (estado) => {
+    if (estado === "AUT") {
+      setNotification({
+        show: true,
+        message: "Transacción autorizada",
+        type: "success"
+      });
+    } else if (estado === "REC") {
+      setNotification({
+        show: true,
+        message: "Transacción rechazada",
+        type: "error"
+      });
+    } else {
+      return false;
     }
+    setCurrentTransaction(null);
+    setTimeout(() => {
+      window.location.reload();
+    }, 2000);
+    return true;
   };
 
   useEffect(() => {
     if (currentTransaction) {
-      const interval = setInterval(() => {
-        checkTransactionStatus(currentTransaction.codigoUnicoTransaccion);
-      }, 2000);
-
-      setPollingInterval(interval);
+      const source = new EventSource(`http://ec2-3-147-57-223.us-east-2.compute.amazonaws.com/v1/transacciones/${currentTransaction.codigoUnicoTransaccion}/estado/stream`);
+
+      source.addEventListener("estado", (event) => {
+        try {
+          const result = JSON.parse(event.data);
+          if (applyTransactionStatus(result.estado)) {
+            source.close();
+          }
+        } catch (error) {
+          console.error("Error al leer estado:", error);
+        }
+      });
 
-      return () => clearInterval(interval);
+      return () => source.close();
     }
   }, [currentTransaction]);
 
@@ -0,0 +1,56 @@
+package ec.edu.espe.pos.controller.mapper;
+
+import ec.edu.espe.pos.controller.dto.GatewayTransaccionDTO;
+import ec.edu.espe.pos.model.Monto;
+import ec.edu.espe.pos.model.Transaccion;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransaccionMapperBenchmark {
+
+    private final TransaccionMapper mapper = new TransaccionMapperImpl();
+    private final Transaccion transaccion = transaccion();
+    private final GatewayTransaccionDTO dto = mapper.toDTO(transaccion);
+
+    @Benchmark
+    public GatewayTransaccionDTO toDTO() {
+        return mapper.toDTO(transaccion);
+    }
+
+    @Benchmark
+    public Transaccion toModel() {
+        return mapper.toModel(dto);
+    }
+
+    private static Transaccion transaccion() {
+        Transaccion transaccion = new Transaccion(1);
+        transaccion.setTipo("PAG");
+        transaccion.setMarca("VISA");
+        transaccion.setModalidad("SIM");
+        transaccion.setDetalle("Transacción POS - VISA");
+        transaccion.setMonto(Monto.deCentavos(2550));
+        transaccion.setCodigoUnicoTransaccion("TRXPOS0000001-1760000000000001");
+        transaccion.setFecha(LocalDateTime.now());
+        transaccion.setEstado("AUT");
+        transaccion.setEstadoRecibo("PEN");
+        transaccion.setMoneda("USD");
+        return transaccion;
+    }
+}
@@ -0,0 +1,56 @@
+package ec.edu.espe.pos.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Manejo del monto en una transacción: validación de positivo, conversión a centavos para
+ * los totales y acumulado. Comparar {@code gc.alloc.rate.norm} entre las dos variantes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MontoBenchmark {
+
+    private final BigDecimal recibido = new BigDecimal("25.50");
+    private final Monto monto = Monto.de(recibido);
+    private final BigDecimal acumuladoBigDecimal = new BigDecimal("1530.25");
+    private final Monto acumuladoMonto = Monto.de(acumuladoBigDecimal);
+
+    @Benchmark
+    public long conBigDecimal() {
+        if (recibido.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalStateException();
+        }
+        long centavos = recibido.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        return centavos + acumuladoBigDecimal.add(recibido).unscaledValue().longValue();
+    }
+
+    @Benchmark
+    public long conMonto() {
+        if (!monto.esPositivo()) {
+            throw new IllegalStateException();
+        }
+        long centavos = monto.centavos();
+        return centavos + acumuladoMonto.sumar(monto).centavos();
+    }
+
+    @Benchmark
+    public Monto conversionEntrada() {
+        return Monto.de(recibido);
+    }
+}
@@ -0,0 +1,55 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.model.Configuracion;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfiguracionServiceBenchmark {
+
+    private EntornoBenchmark entorno;
+    private Configuracion configuracion;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        entorno = new EntornoBenchmark();
+        configuracion = EntornoBenchmark.configuracion();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        entorno.cerrar();
+    }
+
+    /**
+     * Alta de configuración sin transacción: valida, guarda en el repositorio en memoria y
+     * recarga la instantánea.
+     */
+    @Benchmark
+    public Configuracion crearConfiguracion() {
+        return entorno.configuracionService.crear(configuracion);
+    }
+
+    @Benchmark
+    public ConfiguracionActual obtenerConfiguracionActual() {
+        return entorno.configuracionService.obtenerConfiguracionActual();
+    }
+}
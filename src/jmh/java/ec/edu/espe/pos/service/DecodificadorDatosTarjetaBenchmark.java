@@ -0,0 +1,54 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.controller.dto.ValidacionTarjetaDTO;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara la lectura de datosSensibles con árbol Jackson (implementación anterior de
+ * validarTarjeta) contra el decodificador en streaming. Ejecutar con {@code -prof gc}
+ * para obtener bytes asignados por operación (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecodificadorDatosTarjetaBenchmark {
+
+    private static final String DATOS_SENSIBLES =
+            "{\"cardNumber\":\"4314110000000007\",\"expiryDate\":\"01/30\",\"cvv\":\"123\"}";
+
+    private final DecodificadorDatosTarjeta decodificador = new DecodificadorDatosTarjeta();
+
+    @Benchmark
+    public ValidacionTarjetaDTO arbolJackson() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode datosTarjeta = mapper.readTree(DATOS_SENSIBLES);
+
+        ValidacionTarjetaDTO validacionDTO = new ValidacionTarjetaDTO();
+        validacionDTO.setNumero(datosTarjeta.get("cardNumber").asText());
+        validacionDTO.setFechaCaducidad(datosTarjeta.get("expiryDate").asText());
+        validacionDTO.setCvv(datosTarjeta.get("cvv").asText());
+        return validacionDTO;
+    }
+
+    @Benchmark
+    public ValidacionTarjetaDTO decodificadorStreaming() {
+        return decodificador.decodificar(DATOS_SENSIBLES);
+    }
+}
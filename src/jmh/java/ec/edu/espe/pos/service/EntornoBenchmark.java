@@ -0,0 +1,202 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.client.GatewayComercioClient;
+import ec.edu.espe.pos.client.GatewayTransaccionClient;
+import ec.edu.espe.pos.client.ValidacionTarjetaClient;
+import ec.edu.espe.pos.controller.dto.FacturacionComercioDTO;
+import ec.edu.espe.pos.controller.dto.GatewayTransaccionDTO;
+import ec.edu.espe.pos.model.Configuracion;
+import ec.edu.espe.pos.model.ConfiguracionPK;
+import ec.edu.espe.pos.model.Monto;
+import ec.edu.espe.pos.model.Transaccion;
+import ec.edu.espe.pos.repository.ConfiguracionRepository;
+import ec.edu.espe.pos.repository.TransaccionRepository;
+import ec.edu.espe.pos.repository.TransicionEstadoRepository.EstadoCambiado;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Arma los servicios del camino de pago con implementaciones en memoria de los
+ * repositorios y de los tres clientes Feign, sin contexto de Spring ni red.
+ */
+final class EntornoBenchmark {
+
+    static final String CODIGO_POS = "POS0000001";
+    static final String MODELO_POS = "MOD01";
+    static final String MAC = "00:1A:2B:3C:4D:5E";
+    static final int CODIGO_COMERCIO = 1;
+    static final String DATOS_SENSIBLES =
+            "{\"cardNumber\":\"4314110000000000\",\"expiryDate\":\"01/30\",\"cvv\":\"123\"}";
+
+    final ExecutorService ejecutorVirtual = Executors.newVirtualThreadPerTaskExecutor();
+    final ConfiguracionRepository configuracionRepository = configuracionRepository(configuracion());
+    final TransaccionRepository transaccionRepository = transaccionRepository();
+    final GatewayTransaccionClient gatewayClient = new GatewayTransaccionClient() {
+        @Override
+        public ResponseEntity<String> sincronizarTransaccion(GatewayTransaccionDTO transaccion) {
+            return ResponseEntity.ok("Transacción aceptada");
+        }
+
+        @Override
+        public ResponseEntity<String> consultarEstados(List<String> codigosUnicosTransaccion) {
+            return ResponseEntity.ok("[]");
+        }
+    };
+    final GatewayComercioClient comercioClient = codigo -> facturacion();
+    final ValidacionTarjetaClient validacionTarjetaClient = dto -> ResponseEntity.ok().build();
+
+    final ValidadorTarjeta validadorTarjeta = new ValidadorTarjeta(validacionTarjetaClient,
+            new DecodificadorDatosTarjeta(), new PrevalidadorTarjeta(new ClassPathResource("bines.csv")),
+            new SimpleMeterRegistry(), ValidadorTarjeta.Politica.RECHAZAR,
+            50, 20, 50, 80, Duration.ofSeconds(2), Duration.ofSeconds(30), 3);
+
+    final ConfiguracionService configuracionService = new ConfiguracionService(configuracionRepository);
+    final FacturacionComercioCache facturacionComercioCache = new FacturacionComercioCache(comercioClient,
+            ejecutorVirtual, new SimpleMeterRegistry(), Duration.ofMinutes(10), Duration.ofHours(24), 1000);
+    final EscritorTransacciones escritorTransacciones = new EscritorTransacciones(transaccionRepository,
+            new TransaccionesEnMemoria(), 64, Duration.ofMillis(1), 4096);
+    final Path archivoBandeja = archivoTemporal();
+    final BandejaSalidaGateway bandejaSalida = new BandejaSalidaGateway(
+            JsonMapper.builder().findAndAddModules().build(), new SimpleMeterRegistry(), archivoBandeja,
+            DataSize.ofMegabytes(1), Base64.getEncoder().encodeToString(new byte[32]));
+    final AuditoriaTransacciones auditoria = new AuditoriaTransacciones(
+            JsonMapper.builder().findAndAddModules().build(), new SimpleMeterRegistry(), 8192, 0.0);
+    final TransaccionService transaccionService;
+
+    EntornoBenchmark() {
+        configuracionService.recargarConfiguracionActual();
+        escritorTransacciones.iniciar();
+        auditoria.iniciar();
+        transaccionService = new TransaccionService(
+                transaccionRepository,
+                gatewayClient,
+                facturacionComercioCache,
+                configuracionService,
+                validadorTarjeta,
+                ejecutorVirtual,
+                new GeneradorCodigoTransaccion(System::currentTimeMillis),
+                escritorTransacciones,
+                new MetricasTransaccion(new SimpleMeterRegistry()),
+                new NotificadorEstadoTransaccion(transaccionRepository, Duration.ofMinutes(2), Duration.ofMinutes(10), 10000),
+                bandejaSalida,
+                new ContadoresVentas(transaccionRepository),
+                auditoria);
+    }
+
+    void cerrar() {
+        escritorTransacciones.detener();
+        auditoria.detener();
+        ejecutorVirtual.close();
+        try {
+            bandejaSalida.cerrar();
+            Files.deleteIfExists(archivoBandeja);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Path archivoTemporal() {
+        try {
+            return Files.createTempFile("pos-outbox", ".dat");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Configuracion configuracion() {
+        Configuracion configuracion = new Configuracion(new ConfiguracionPK(CODIGO_POS, MODELO_POS));
+        configuracion.setDireccionMac(MAC);
+        configuracion.setCodigoComercio(CODIGO_COMERCIO);
+        configuracion.setFechaActivacion(LocalDateTime.now().minusDays(1));
+        return configuracion;
+    }
+
+    static FacturacionComercioDTO facturacion() {
+        FacturacionComercioDTO facturacion = new FacturacionComercioDTO();
+        facturacion.setCodigo(1);
+        return facturacion;
+    }
+
+    private static ConfiguracionRepository configuracionRepository(Configuracion configuracion) {
+        return stub(ConfiguracionRepository.class, (metodo, argumentos) -> switch (metodo.getName()) {
+            case "findAll" -> List.of(configuracion);
+            case "findById", "findByPk" -> Optional.of(configuracion);
+            case "save" -> argumentos[0];
+            default -> throw new UnsupportedOperationException(metodo.getName());
+        });
+    }
+
+    private static TransaccionRepository transaccionRepository() {
+        AtomicInteger secuencia = new AtomicInteger();
+        return stub(TransaccionRepository.class, (metodo, argumentos) -> switch (metodo.getName()) {
+            case "save" -> {
+                Transaccion transaccion = (Transaccion) argumentos[0];
+                if (transaccion.getCodigo() == null) {
+                    transaccion.setCodigo(secuencia.incrementAndGet());
+                }
+                yield transaccion;
+            }
+            case "cambiarEstados" -> ((Collection<?>) argumentos[0]).stream()
+                    .map(codigo -> new EstadoCambiado((String) codigo, "VISA", Monto.deCentavos(2550)))
+                    .toList();
+            default -> throw new UnsupportedOperationException(metodo.getName());
+        });
+    }
+
+    /** Administrador de transacciones sin recurso: los repositorios en memoria no lo necesitan. */
+    private static final class TransaccionesEnMemoria extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> tipo, BiFunction<Method, Object[], Object> manejador) {
+        return (T) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[] { tipo },
+                (proxy, metodo, argumentos) -> switch (metodo.getName()) {
+                    case "toString" -> tipo.getSimpleName() + "Stub";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == argumentos[0];
+                    default -> manejador.apply(metodo, argumentos);
+                });
+    }
+}
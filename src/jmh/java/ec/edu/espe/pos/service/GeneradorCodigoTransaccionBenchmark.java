@@ -0,0 +1,56 @@
+package ec.edu.espe.pos.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generación del código único: formato anterior con String.format frente al generador
+ * con contador atómico, también bajo contención.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneradorCodigoTransaccionBenchmark {
+
+    private final GeneradorCodigoTransaccion generador = new GeneradorCodigoTransaccion(System::currentTimeMillis);
+
+    @Benchmark
+    public String formatoAnterior() {
+        LocalDateTime now = LocalDateTime.now();
+        return String.format("TRX%06d-%d-%02d-%02d-%02d-%02d-%02d-%012d",
+                new Random().nextInt(1000000),
+                now.getYear(),
+                now.getMonthValue(),
+                now.getDayOfMonth(),
+                now.getHour(),
+                now.getMinute(),
+                now.getSecond(),
+                1L);
+    }
+
+    @Benchmark
+    public String generador() {
+        return generador.generar(EntornoBenchmark.CODIGO_POS);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generadorConcurrente() {
+        return generador.generar(EntornoBenchmark.CODIGO_POS);
+    }
+}
@@ -0,0 +1,68 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.model.Monto;
+import ec.edu.espe.pos.model.Transaccion;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Camino de pago completo con clientes Feign y repositorios en memoria: mide el costo
+ * propio del servicio (validaciones, mapeo, generación de código, orquestación).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransaccionServiceBenchmark {
+
+    private static final Monto MONTO = Monto.deCentavos(2550);
+
+    private EntornoBenchmark entorno;
+    private Transaccion registrada;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        entorno = new EntornoBenchmark();
+        registrada = entorno.transaccionService.registrarPendiente(nuevaTransaccion());
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        entorno.cerrar();
+    }
+
+    @Benchmark
+    public Transaccion crear() {
+        return entorno.transaccionService.crear(nuevaTransaccion(), EntornoBenchmark.DATOS_SENSIBLES,
+                Boolean.FALSE, 0);
+    }
+
+    @Benchmark
+    public Transaccion procesarConGateway() {
+        registrada.setEstado(TransaccionService.ESTADO_ENVIADO);
+        return entorno.transaccionService.procesarConGateway(registrada, EntornoBenchmark.DATOS_SENSIBLES,
+                Boolean.FALSE, 0);
+    }
+
+    private static Transaccion nuevaTransaccion() {
+        Transaccion transaccion = new Transaccion();
+        transaccion.setMarca("VISA");
+        transaccion.setMonto(MONTO);
+        return transaccion;
+    }
+}
@@ -4,9 +4,11 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 
+import ec.edu.espe.pos.config.FeignClientesConfig;
 import ec.edu.espe.pos.controller.dto.FacturacionComercioDTO;
 
-@FeignClient(name = "gateway-comercio", url = "http://ec2-18-119-106-182.us-east-2.compute.amazonaws.com")
+@FeignClient(name = "gateway-comercio", url = "http://ec2-18-119-106-182.us-east-2.compute.amazonaws.com",
+        configuration = FeignClientesConfig.GatewayComercio.class)
 public interface GatewayComercioClient {
     
     @GetMapping("/v1/comercios/{codigoComercio}/facturacion")
@@ -6,12 +6,19 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.ResponseBody;
 
+import ec.edu.espe.pos.config.FeignClientesConfig;
 import ec.edu.espe.pos.controller.dto.GatewayTransaccionDTO;
 
-@FeignClient(name = "gateway-transaccion", url = "http://ec2-18-119-106-182.us-east-2.compute.amazonaws.com")
+import java.util.List;
+
+@FeignClient(name = "gateway-transaccion", url = "http://ec2-18-119-106-182.us-east-2.compute.amazonaws.com",
+        configuration = FeignClientesConfig.GatewayTransaccion.class)
 public interface GatewayTransaccionClient {
 
     @PostMapping("/v1/transacciones/sincronizar")
     @ResponseBody
     ResponseEntity<String> sincronizarTransaccion(@RequestBody GatewayTransaccionDTO transaccion);
+
+    @PostMapping("/v1/transacciones/estados")
+    ResponseEntity<String> consultarEstados(@RequestBody List<String> codigosUnicosTransaccion);
 }
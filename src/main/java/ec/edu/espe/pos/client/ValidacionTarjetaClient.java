@@ -5,9 +5,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import ec.edu.espe.pos.config.FeignClientesConfig;
 import ec.edu.espe.pos.controller.dto.ValidacionTarjetaDTO;
 
-@FeignClient(name = "validacionTarjeta", url = "http://ec2-3-23-102-137.us-east-2.compute.amazonaws.com")
+@FeignClient(name = "validacion-tarjeta", url = "http://ec2-3-23-102-137.us-east-2.compute.amazonaws.com",
+        configuration = FeignClientesConfig.ValidacionTarjeta.class)
 public interface ValidacionTarjetaClient {
 
     @PostMapping("/v1/tarjetas/validar")
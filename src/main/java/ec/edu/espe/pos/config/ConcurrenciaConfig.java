@@ -0,0 +1,16 @@
+package ec.edu.espe.pos.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class ConcurrenciaConfig {
+
+    @Bean(destroyMethod = "close")
+    public ExecutorService ejecutorVirtual() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
@@ -0,0 +1,78 @@
+package ec.edu.espe.pos.config;
+
+import feign.Client;
+import feign.RequestInterceptor;
+import feign.hc5.ApacheHttp5Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Configuración propia de cada cliente Feign, referenciada desde
+ * {@code @FeignClient(configuration = ...)}. Ni esta clase ni las anidadas llevan
+ * {@code @Configuration}: así sus beans solo existen en el contexto de su cliente y cada
+ * uno tiene su propio pool de conexiones.
+ */
+public final class FeignClientesConfig {
+
+    static final String CLIENTE_GATEWAY_TRANSACCION = "gateway-transaccion";
+    static final String CLIENTE_GATEWAY_COMERCIO = "gateway-comercio";
+    static final String CLIENTE_VALIDACION_TARJETA = "validacion-tarjeta";
+
+    private FeignClientesConfig() {
+    }
+
+    /**
+     * Transporte de {@code GatewayTransaccionClient}.
+     */
+    public static class GatewayTransaccion {
+
+        @Bean(destroyMethod = "close")
+        public CloseableHttpClient httpClientGatewayTransaccion(Environment env, MeterRegistry registry) {
+            return FeignConfig.crearHttpClient(CLIENTE_GATEWAY_TRANSACCION, env, registry);
+        }
+
+        @Bean
+        public Client feignClient(CloseableHttpClient httpClientGatewayTransaccion) {
+            return new ApacheHttp5Client(httpClientGatewayTransaccion);
+        }
+
+        @Bean
+        public RequestInterceptor compresionGatewayTransaccion(Environment env) {
+            return FeignConfig.compresionGzip(CLIENTE_GATEWAY_TRANSACCION, env);
+        }
+    }
+
+    /**
+     * Transporte de {@code GatewayComercioClient}.
+     */
+    public static class GatewayComercio {
+
+        @Bean(destroyMethod = "close")
+        public CloseableHttpClient httpClientGatewayComercio(Environment env, MeterRegistry registry) {
+            return FeignConfig.crearHttpClient(CLIENTE_GATEWAY_COMERCIO, env, registry);
+        }
+
+        @Bean
+        public Client feignClient(CloseableHttpClient httpClientGatewayComercio) {
+            return new ApacheHttp5Client(httpClientGatewayComercio);
+        }
+    }
+
+    /**
+     * Transporte de {@code ValidacionTarjetaClient}.
+     */
+    public static class ValidacionTarjeta {
+
+        @Bean(destroyMethod = "close")
+        public CloseableHttpClient httpClientValidacionTarjeta(Environment env, MeterRegistry registry) {
+            return FeignConfig.crearHttpClient(CLIENTE_VALIDACION_TARJETA, env, registry);
+        }
+
+        @Bean
+        public Client feignClient(CloseableHttpClient httpClientValidacionTarjeta) {
+            return new ApacheHttp5Client(httpClientValidacionTarjeta);
+        }
+    }
+}
@@ -2,22 +2,107 @@ package ec.edu.espe.pos.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import feign.RequestInterceptor;
 import feign.codec.Decoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.cloud.openfeign.support.SpringDecoder;
 import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
 
 @Configuration
 public class FeignConfig {
-    
+
+    private static final String PREFIJO = "pos.feign.";
+
     @Bean
     public Decoder feignDecoder() {
         List<HttpMessageConverter<?>> converters = new ArrayList<>();
         converters.add(new StringHttpMessageConverter());
         return new ResponseEntityDecoder(new SpringDecoder(() -> new HttpMessageConverters(converters)));
     }
-} 
\ No newline at end of file
+
+    /**
+     * Cliente HTTP con pool propio y conexiones keep-alive. Los timeouts de conexión y de
+     * lectura siguen saliendo de {@code spring.cloud.openfeign.client.config.*}; aquí solo
+     * se fija cuánto se espera por una conexión libre del pool.
+     */
+    static CloseableHttpClient crearHttpClient(String cliente, Environment env, MeterRegistry registry) {
+        Timer esperaConexion = Timer.builder("pos.feign.pool.espera")
+                .description("Tiempo de espera por una conexión libre del pool")
+                .tag("cliente", cliente)
+                .publishPercentileHistogram()
+                .register(registry);
+
+        PoolConexionesMedido pool = new PoolConexionesMedido(esperaConexion);
+        pool.setMaxTotal(propiedad(env, cliente, "pool.max-conexiones", Integer.class, 200));
+        pool.setDefaultMaxPerRoute(propiedad(env, cliente, "pool.max-conexiones-por-ruta", Integer.class, 50));
+        pool.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setTimeToLive(TimeValue.ofMilliseconds(
+                        propiedad(env, cliente, "pool.tiempo-vida", Duration.class, Duration.ofMinutes(5)).toMillis()))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build());
+        new PoolingHttpClientConnectionManagerMetricsBinder(pool, cliente).bindTo(registry);
+
+        Duration inactividadMaxima = propiedad(env, cliente, "pool.inactividad-maxima", Duration.class,
+                Duration.ofSeconds(30));
+        Duration esperaMaxima = propiedad(env, cliente, "pool.espera-maxima", Duration.class,
+                Duration.ofSeconds(5));
+        return HttpClients.custom()
+                .setConnectionManager(pool)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(esperaMaxima.toMillis()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(inactividadMaxima.toMillis()))
+                .build();
+    }
+
+    /**
+     * Comprime con gzip el cuerpo de las peticiones si {@code pos.feign.<cliente>.gzip=true}
+     * y el cuerpo supera {@code gzip-tamano-minimo} bytes.
+     */
+    static RequestInterceptor compresionGzip(String cliente, Environment env) {
+        boolean habilitado = propiedad(env, cliente, "gzip", Boolean.class, false);
+        int tamanoMinimo = propiedad(env, cliente, "gzip-tamano-minimo", Integer.class, 1024);
+        return template -> {
+            byte[] cuerpo = template.body();
+            if (!habilitado || cuerpo == null || cuerpo.length < tamanoMinimo) {
+                return;
+            }
+            ByteArrayOutputStream comprimido = new ByteArrayOutputStream(cuerpo.length / 2);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(comprimido)) {
+                gzip.write(cuerpo);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            template.body(comprimido.toByteArray(), template.requestCharset());
+            template.header("Content-Encoding", "gzip");
+        };
+    }
+
+    /**
+     * Lee {@code pos.feign.<cliente>.<nombre>} y, si no existe, {@code pos.feign.<nombre>}.
+     */
+    private static <T> T propiedad(Environment env, String cliente, String nombre, Class<T> tipo, T porDefecto) {
+        T valor = env.getProperty(PREFIJO + cliente + "." + nombre, tipo);
+        return valor != null ? valor : env.getProperty(PREFIJO + nombre, tipo, porDefecto);
+    }
+}
@@ -0,0 +1,48 @@
+package ec.edu.espe.pos.config;
+
+import io.micrometer.core.instrument.Timer;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.util.Timeout;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Pool de conexiones que registra cuánto espera cada petición por una conexión libre.
+ */
+class PoolConexionesMedido extends PoolingHttpClientConnectionManager {
+
+    private final Timer esperaConexion;
+
+    PoolConexionesMedido(Timer esperaConexion) {
+        this.esperaConexion = esperaConexion;
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        long inicio = System.nanoTime();
+        LeaseRequest solicitud = super.lease(id, route, requestTimeout, state);
+        return new LeaseRequest() {
+
+            @Override
+            public ConnectionEndpoint get(Timeout timeout)
+                    throws InterruptedException, ExecutionException, TimeoutException {
+                try {
+                    return solicitud.get(timeout);
+                } finally {
+                    esperaConexion.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return solicitud.cancel();
+            }
+        };
+    }
+}
@@ -2,8 +2,13 @@ package ec.edu.espe.pos.controller;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,16 +17,24 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import ec.edu.espe.pos.service.AuditoriaTransacciones;
+import ec.edu.espe.pos.service.ProcesamientoAsincronoService;
+import ec.edu.espe.pos.service.ProcesamientoLoteService;
 import ec.edu.espe.pos.service.TransaccionService;
 import ec.edu.espe.pos.controller.dto.GatewayTransaccionDTO;
 import ec.edu.espe.pos.controller.dto.TransaccionRespuestaDTO;
 import ec.edu.espe.pos.controller.mapper.TransaccionMapper;
+import ec.edu.espe.pos.model.Monto;
 import ec.edu.espe.pos.model.Transaccion;
 import ec.edu.espe.pos.exception.InvalidDataException;
+import ec.edu.espe.pos.exception.ServicioSaturadoException;
 import ec.edu.espe.pos.exception.TarjetaInvalidaException;
 
 import jakarta.validation.Valid;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 @CrossOrigin(origins = "https://arquitectura-grupo02-pos.vercel.app/", allowedHeaders = "*", methods = {
         RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.OPTIONS
 })
@@ -32,12 +45,24 @@ public class ProcesamientoTransaccionController {
 
     private static final Logger log = LoggerFactory.getLogger(ProcesamientoTransaccionController.class);
     private final TransaccionService transaccionService;
+    private final ProcesamientoAsincronoService procesamientoAsincronoService;
+    private final ProcesamientoLoteService procesamientoLoteService;
     private final TransaccionMapper transaccionMapper;
+    private final ObjectMapper objectMapper;
+    private final AuditoriaTransacciones auditoria;
 
     public ProcesamientoTransaccionController(TransaccionService transaccionService,
-            TransaccionMapper transaccionMapper) {
+            ProcesamientoAsincronoService procesamientoAsincronoService,
+            ProcesamientoLoteService procesamientoLoteService,
+            TransaccionMapper transaccionMapper,
+            ObjectMapper objectMapper,
+            AuditoriaTransacciones auditoria) {
         this.transaccionService = transaccionService;
+        this.procesamientoAsincronoService = procesamientoAsincronoService;
+        this.procesamientoLoteService = procesamientoLoteService;
         this.transaccionMapper = transaccionMapper;
+        this.objectMapper = objectMapper;
+        this.auditoria = auditoria;
     }
 
     @Operation(summary = "Procesar una nueva transacción de pago", description = "Procesa una transacción de pago con los datos de la tarjeta y opciones de diferido")
@@ -49,11 +74,11 @@ public class ProcesamientoTransaccionController {
     })
     @PostMapping("/procesar")
     public ResponseEntity<TransaccionRespuestaDTO> procesarPago(@Valid @RequestBody GatewayTransaccionDTO request) {
-        log.info("Recibiendo petición para procesar pago: {}", request);
-
+        log.debug("Recibiendo petición para procesar pago");
         try {
+            auditoria.registrar("PAGO_RECIBIDO", request);
             Transaccion transaccion = new Transaccion();
-            transaccion.setMonto(request.getMonto());
+            transaccion.setMonto(Monto.de(request.getMonto()));
             transaccion.setMarca(request.getMarca());
 
             Transaccion transaccionProcesada = transaccionService.crear(
@@ -89,4 +114,100 @@ public class ProcesamientoTransaccionController {
                     .build());
         }
     }
+
+    @Operation(summary = "Procesar una transacción de pago de forma asíncrona", description = "Registra la transacción en estado ENV y la envía al gateway en segundo plano. El resultado se consulta en /v1/transacciones/{codigoUnicoTransaccion}/estado")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Transacción aceptada para procesamiento", content = @Content(mediaType = "application/json", schema = @Schema(implementation = TransaccionRespuestaDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos", content = @Content(mediaType = "application/json", schema = @Schema(implementation = TransaccionRespuestaDTO.class))),
+            @ApiResponse(responseCode = "503", description = "Cola de procesamiento llena", content = @Content(mediaType = "application/json", schema = @Schema(implementation = TransaccionRespuestaDTO.class))),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor", content = @Content(mediaType = "application/json", schema = @Schema(implementation = TransaccionRespuestaDTO.class)))
+    })
+    @PostMapping("/procesar-asincrono")
+    public ResponseEntity<TransaccionRespuestaDTO> procesarPagoAsincrono(@Valid @RequestBody GatewayTransaccionDTO request) {
+        log.debug("Recibiendo petición para procesar pago asíncrono");
+        try {
+            auditoria.registrar("PAGO_ASINCRONO_RECIBIDO", request);
+            Transaccion transaccion = new Transaccion();
+            transaccion.setMonto(Monto.de(request.getMonto()));
+            transaccion.setMarca(request.getMarca());
+
+            Transaccion transaccionPendiente = procesamientoAsincronoService.encolar(
+                transaccion,
+                request.getDatosTarjeta(),
+                request.getInteresDiferido(),
+                request.getCuotas()
+            );
+
+            return ResponseEntity.status(202).body(TransaccionRespuestaDTO.builder()
+                    .mensaje("Transacción recibida, en proceso")
+                    .estado(transaccionPendiente.getEstado())
+                    .codigoUnicoTransaccion(transaccionPendiente.getCodigoUnicoTransaccion())
+                    .build());
+
+        } catch (ServicioSaturadoException e) {
+            log.warn("Procesamiento asíncrono saturado: {}", e.getMessage());
+            return ResponseEntity.status(503).body(TransaccionRespuestaDTO.builder()
+                    .mensaje(e.getMessage())
+                    .estado("ERROR")
+                    .build());
+        } catch (InvalidDataException e) {
+            log.error("Error en datos de entrada: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(TransaccionRespuestaDTO.builder()
+                    .mensaje(e.getMessage())
+                    .estado("ERROR")
+                    .build());
+        } catch (Exception e) {
+            log.error("Error inesperado al registrar pago asíncrono: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body(TransaccionRespuestaDTO.builder()
+                    .mensaje("Error interno del servidor")
+                    .estado("ERROR")
+                    .build());
+        }
+    }
+
+    @Operation(summary = "Procesar un lote de transacciones de pago", description = "Registra el lote con una sola escritura y lo envía al gateway con paralelismo acotado. La respuesta es un arreglo JSON con un resultado por transacción, en el mismo orden del lote, que se escribe a medida que cada una termina")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lote procesado; revisar el estado de cada elemento (los elementos inválidos se informan como ERROR con su motivo)", content = @Content(mediaType = "application/json", schema = @Schema(implementation = TransaccionRespuestaDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Lote vacío o demasiado grande", content = @Content(mediaType = "application/json", schema = @Schema(implementation = TransaccionRespuestaDTO.class))),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor", content = @Content(mediaType = "application/json", schema = @Schema(implementation = TransaccionRespuestaDTO.class)))
+    })
+    @PostMapping(value = "/procesar-lote", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> procesarLote(@RequestBody List<GatewayTransaccionDTO> requests) {
+        log.info("Recibiendo lote de {} pagos", requests != null ? requests.size() : 0);
+
+        try {
+            List<CompletableFuture<TransaccionRespuestaDTO>> resultados = procesamientoLoteService.procesar(requests);
+
+            StreamingResponseBody cuerpo = salida -> {
+                try (JsonGenerator generador = objectMapper.getFactory().createGenerator(salida)) {
+                    generador.writeStartArray();
+                    for (CompletableFuture<TransaccionRespuestaDTO> resultado : resultados) {
+                        generador.writeObject(resultado.join());
+                        generador.flush();
+                    }
+                    generador.writeEndArray();
+                }
+            };
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cuerpo);
+
+        } catch (InvalidDataException e) {
+            log.error("Error en datos del lote: {}", e.getMessage());
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                    .body(escribir(TransaccionRespuestaDTO.builder()
+                            .mensaje(e.getMessage())
+                            .estado("ERROR")
+                            .build()));
+        } catch (Exception e) {
+            log.error("Error inesperado al procesar lote: {}", e.getMessage());
+            return ResponseEntity.internalServerError().contentType(MediaType.APPLICATION_JSON)
+                    .body(escribir(TransaccionRespuestaDTO.builder()
+                            .mensaje("Error interno del servidor")
+                            .estado("ERROR")
+                            .build()));
+        }
+    }
+
+    private StreamingResponseBody escribir(TransaccionRespuestaDTO respuesta) {
+        return salida -> objectMapper.writeValue(salida, respuesta);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package ec.edu.espe.pos.controller;
+
+import ec.edu.espe.pos.controller.dto.ContadorVentasDTO;
+import ec.edu.espe.pos.controller.dto.ReporteLiquidacionDTO;
+import ec.edu.espe.pos.service.ContadoresVentas;
+import ec.edu.espe.pos.service.ReporteService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import lombok.RequiredArgsConstructor;
+
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/v1/reportes")
+@CrossOrigin(origins = "https://arquitectura-grupo02-pos.vercel.app/")
+@RequiredArgsConstructor
+@Tag(name = "Reportes", description = "API de reportes de transacciones")
+public class ReporteController {
+
+    private static final Logger log = LoggerFactory.getLogger(ReporteController.class);
+    private static final String TEXT_CSV = "text/csv";
+
+    private final ReporteService reporteService;
+    private final ContadoresVentas contadoresVentas;
+
+    @Operation(summary = "Cierre diario en JSON",
+            description = "Cantidad y suma de montos por marca, estado y tipo para el día indicado")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Cierre calculado")
+    })
+    @GetMapping(value = "/liquidacion", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ReporteLiquidacionDTO> liquidacion(
+            @Parameter(description = "Día a liquidar (ISO-8601)", example = "2025-01-31")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+        log.info("Generando cierre diario del {}", fecha);
+        return ResponseEntity.ok(reporteService.liquidacion(fecha));
+    }
+
+    @Operation(summary = "Cierre diario en CSV")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Cierre calculado")
+    })
+    @GetMapping(value = "/liquidacion", produces = TEXT_CSV)
+    public ResponseEntity<StreamingResponseBody> liquidacionCsv(
+            @Parameter(description = "Día a liquidar (ISO-8601)", example = "2025-01-31")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+        log.info("Generando cierre diario del {} en CSV", fecha);
+        StreamingResponseBody cuerpo = salida -> {
+            Writer escritor = new OutputStreamWriter(salida, StandardCharsets.UTF_8);
+            reporteService.escribirLiquidacionCsv(fecha, escritor);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(TEXT_CSV))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"liquidacion-" + fecha + ".csv\"")
+                .body(cuerpo);
+    }
+
+    @Operation(summary = "Totales en vivo",
+            description = "Cantidad y suma de montos por marca y estado desde el inicio, sin consultar la base de datos")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Totales actuales")
+    })
+    @GetMapping("/en-vivo")
+    public ResponseEntity<List<ContadorVentasDTO>> enVivo() {
+        return ResponseEntity.ok(contadoresVentas.obtenerTotales());
+    }
+}
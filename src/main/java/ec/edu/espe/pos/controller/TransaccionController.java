@@ -2,15 +2,28 @@ package ec.edu.espe.pos.controller;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import ec.edu.espe.pos.service.AuditoriaTransacciones;
+import ec.edu.espe.pos.service.BusquedaTransaccionService;
+import ec.edu.espe.pos.service.BusquedaTransaccionService.PaginaTransacciones;
+import ec.edu.espe.pos.service.DeduplicadorCallbacks;
+import ec.edu.espe.pos.service.NotificadorEstadoTransaccion;
 import ec.edu.espe.pos.service.TransaccionService;
 import ec.edu.espe.pos.controller.dto.TransaccionDTO;
 import ec.edu.espe.pos.controller.dto.ActualizacionEstadoDTO;
+import ec.edu.espe.pos.controller.dto.EstadoTransaccionDTO;
 import ec.edu.espe.pos.controller.dto.GatewayTransaccionDTO;
+import ec.edu.espe.pos.controller.dto.PaginaTransaccionesDTO;
+import ec.edu.espe.pos.controller.dto.ResultadoActualizacionDTO;
 import ec.edu.espe.pos.controller.mapper.TransaccionMapper;
 import ec.edu.espe.pos.model.Transaccion;
+import ec.edu.espe.pos.exception.InvalidDataException;
 import ec.edu.espe.pos.exception.NotFoundException;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -22,12 +35,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/v1/transacciones")
 @CrossOrigin(origins = "https://arquitectura-grupo02-pos.vercel.app/")
-@RequiredArgsConstructor
 @Tag(name = "Transacciones", description = "API para la gestión de transacciones en el POS")
 public class TransaccionController {
     
@@ -36,7 +50,28 @@ public class TransaccionController {
     private static final String ESTADO_RECHAZADO = "REC";
 
     private final TransaccionService transaccionService;
+    private final NotificadorEstadoTransaccion notificadorEstado;
+    private final DeduplicadorCallbacks deduplicador;
+    private final BusquedaTransaccionService busquedaService;
+    private final AuditoriaTransacciones auditoria;
     private final TransaccionMapper mapper;
+    private final int tamanoMaximoLote;
+
+    public TransaccionController(TransaccionService transaccionService,
+            NotificadorEstadoTransaccion notificadorEstado,
+            DeduplicadorCallbacks deduplicador,
+            BusquedaTransaccionService busquedaService,
+            AuditoriaTransacciones auditoria,
+            TransaccionMapper mapper,
+            @Value("${pos.actualizacion.lote-maximo:1000}") int tamanoMaximoLote) {
+        this.transaccionService = transaccionService;
+        this.notificadorEstado = notificadorEstado;
+        this.deduplicador = deduplicador;
+        this.busquedaService = busquedaService;
+        this.auditoria = auditoria;
+        this.mapper = mapper;
+        this.tamanoMaximoLote = tamanoMaximoLote;
+    }
 
     @Operation(summary = "Crear una nueva transacción")
     @ApiResponses({
@@ -59,18 +94,61 @@ public class TransaccionController {
         return ResponseEntity.ok(mapper.toDTO(resultado));
     }
 
+    @Operation(summary = "Buscar transacciones",
+            description = "Filtra por estado, marca, tipo y rango de fechas; pagina con el cursor devuelto en la respuesta anterior")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Página de transacciones"),
+        @ApiResponse(responseCode = "400", description = "Tamaño de página o cursor inválido")
+    })
+    @GetMapping
+    public ResponseEntity<PaginaTransaccionesDTO> buscarTransacciones(
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) String marca,
+            @RequestParam(required = false) String tipo,
+            @Parameter(description = "Fecha inicial, inclusive (ISO-8601)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @Parameter(description = "Fecha final, exclusiva (ISO-8601)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int tamano) {
+        log.info("Buscando transacciones: estado={}, marca={}, tipo={}, desde={}, hasta={}",
+                estado, marca, tipo, desde, hasta);
+        try {
+            PaginaTransacciones pagina = busquedaService.buscar(estado, marca, tipo, desde, hasta, cursor, tamano);
+            return ResponseEntity.ok(PaginaTransaccionesDTO.builder()
+                    .transacciones(pagina.transacciones().stream().map(mapper::toDTO).toList())
+                    .siguienteCursor(pagina.siguienteCursor())
+                    .build());
+        } catch (InvalidDataException e) {
+            log.error("Parámetros de búsqueda inválidos: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @Operation(summary = "Consultar estado de una transacción")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Estado consultado exitosamente"),
         @ApiResponse(responseCode = "404", description = "Transacción no encontrada")
     })
     @GetMapping("/{codigoUnicoTransaccion}/estado")
-    public ResponseEntity<GatewayTransaccionDTO> consultarEstado(
+    public ResponseEntity<EstadoTransaccionDTO> consultarEstado(
             @Parameter(description = "Código único de la transacción") 
             @PathVariable String codigoUnicoTransaccion) {
         log.info("Consultando estado de transacción: {}", codigoUnicoTransaccion);
-        Transaccion transaccion = transaccionService.obtenerPorCodigoUnico(codigoUnicoTransaccion);
-        return ResponseEntity.ok(mapper.toDTO(transaccion));
+        return ResponseEntity.ok(transaccionService.consultarEstado(codigoUnicoTransaccion));
+    }
+
+    @Operation(summary = "Suscribirse al estado de una transacción",
+            description = "Flujo Server-Sent Events: emite un evento 'estado' cada vez que cambia y se cierra al llegar a un estado final (AUT, REC, REV o ANU)")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Suscripción abierta")
+    })
+    @GetMapping(value = "/{codigoUnicoTransaccion}/estado/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suscribirEstado(
+            @Parameter(description = "Código único de la transacción")
+            @PathVariable String codigoUnicoTransaccion) {
+        log.debug("Suscripción al estado de transacción: {}", codigoUnicoTransaccion);
+        return notificadorEstado.suscribir(codigoUnicoTransaccion);
     }
 
     @Operation(summary = "Actualizar estado de una transacción")
@@ -81,23 +159,51 @@ public class TransaccionController {
     })
     @PutMapping("/actualizar-estado")
     public ResponseEntity<Void> actualizarEstado(@RequestBody ActualizacionEstadoDTO actualizacion) {
-        log.info("Recibiendo actualización de estado desde Gateway: {}", actualizacion);
+        auditoria.registrar("CALLBACK_ESTADO", actualizacion);
+        Integer respuestaPrevia = deduplicador.respuestaPrevia(
+                actualizacion.getCodigoUnicoTransaccion(), actualizacion.getEstado(), actualizacion.getMensaje());
+        if (respuestaPrevia != null) {
+            log.info("Callback repetido para transacción {}, se responde {}",
+                    actualizacion.getCodigoUnicoTransaccion(), respuestaPrevia);
+            return ResponseEntity.status(respuestaPrevia).build();
+        }
         try {
             transaccionService.actualizarEstadoTransaccion(actualizacion);
-            
+
+            int status;
             if (ESTADO_AUTORIZADO.equals(actualizacion.getEstado())) {
-                return ResponseEntity.status(201).build();
+                status = 201;
             } else if (ESTADO_RECHAZADO.equals(actualizacion.getEstado())) {
-                return ResponseEntity.status(400).build();
+                status = 400;
             } else {
-                return ResponseEntity.status(201).build();
+                status = 201;
             }
+            deduplicador.registrar(actualizacion.getCodigoUnicoTransaccion(), actualizacion.getEstado(),
+                    actualizacion.getMensaje(), status);
+            return ResponseEntity.status(status).build();
         } catch (Exception e) {
             log.error("Error al actualizar estado: {}", e.getMessage());
             return ResponseEntity.status(400).build();
         }
     }
 
+    @Operation(summary = "Actualizar el estado de un lote de transacciones",
+            description = "Aplica muchas actualizaciones del gateway con un UPDATE por estado y devuelve el resultado de cada una en el orden recibido")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Lote aplicado; revisar el resultado de cada elemento"),
+        @ApiResponse(responseCode = "400", description = "Lote vacío o demasiado grande")
+    })
+    @PutMapping("/actualizar-estado/lote")
+    public ResponseEntity<List<ResultadoActualizacionDTO>> actualizarEstadoLote(
+            @RequestBody List<ActualizacionEstadoDTO> actualizaciones) {
+        log.info("Recibiendo lote de {} actualizaciones de estado desde Gateway",
+                actualizaciones != null ? actualizaciones.size() : 0);
+        if (actualizaciones == null || actualizaciones.isEmpty() || actualizaciones.size() > tamanoMaximoLote) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(transaccionService.actualizarEstadosTransacciones(actualizaciones));
+    }
+
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<TransaccionDTO> handleNotFoundException(NotFoundException e) {
         TransaccionDTO response = new TransaccionDTO();
@@ -0,0 +1,25 @@
+package ec.edu.espe.pos.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@Schema(description = "Total en vivo de transacciones para una marca y un estado")
+public class ContadorVentasDTO {
+
+    @Schema(description = "Marca de la tarjeta", example = "VISA")
+    private String marca;
+
+    @Schema(description = "Estado de las transacciones", example = "AUT")
+    private String estado;
+
+    @Schema(description = "Número de transacciones", example = "42")
+    private long cantidad;
+
+    @Schema(description = "Suma de los montos", example = "1530.25")
+    private BigDecimal total;
+}
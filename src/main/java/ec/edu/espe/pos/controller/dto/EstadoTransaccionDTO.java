@@ -0,0 +1,34 @@
+package ec.edu.espe.pos.controller.dto;
+
+import ec.edu.espe.pos.model.Monto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estado de una transacción. Se construye directamente en la consulta JPQL
+ * ({@code select new ...}), por eso el orden del constructor importa.
+ */
+@Data
+@AllArgsConstructor
+@Schema(description = "Estado actual de una transacción")
+public class EstadoTransaccionDTO {
+
+    @Schema(description = "Estado de la transacción", example = "AUT")
+    private String estado;
+
+    @Schema(description = "Estado del recibo", example = "PEN")
+    private String estadoRecibo;
+
+    @Schema(description = "Monto de la transacción", type = "number", example = "25.50")
+    private Monto monto;
+
+    @Schema(description = "Marca de la tarjeta", example = "VISA")
+    private String marca;
+
+    @Schema(description = "Fecha de la transacción")
+    private LocalDateTime fecha;
+}
@@ -5,6 +5,7 @@ import java.time.LocalDateTime;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Pattern;
@@ -12,6 +13,7 @@ import jakarta.validation.constraints.Size;
 import jakarta.validation.constraints.Positive;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Data
 @NoArgsConstructor
@@ -33,6 +35,7 @@ public class GatewayTransaccionDTO {
     private String detalle;
 
     @Positive(message = "El monto debe ser mayor a cero")
+    @Digits(integer = 16, fraction = 2, message = "El monto debe tener máximo 16 dígitos enteros y 2 decimales")
     private BigDecimal monto;
 
     @Size(min = 10, max = 20, message = "El código único debe tener entre 10 y 20 caracteres")
@@ -51,6 +54,7 @@ public class GatewayTransaccionDTO {
 
     @Size(min = 16, max = 16, message = "El número de tarjeta debe tener 16 dígitos")
     @Pattern(regexp = "\\d{16}", message = "El número de tarjeta debe contener solo dígitos")
+    @ToString.Exclude
     private String tarjeta;
 
     @Size(min = 10, max = 10, message = "El código POS debe tener 10 caracteres")
@@ -67,5 +71,6 @@ public class GatewayTransaccionDTO {
     @Schema(description = "Número de cuotas para el diferido", example = "12")
     private Integer cuotas;
   
+    @ToString.Exclude
     private String datosTarjeta;
 }
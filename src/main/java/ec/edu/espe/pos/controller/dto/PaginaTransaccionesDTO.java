@@ -0,0 +1,19 @@
+package ec.edu.espe.pos.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@Schema(description = "Página de transacciones ordenada de la más reciente a la más antigua")
+public class PaginaTransaccionesDTO {
+
+    @Schema(description = "Transacciones de la página")
+    private List<GatewayTransaccionDTO> transacciones;
+
+    @Schema(description = "Cursor para pedir la página siguiente; nulo si no hay más resultados")
+    private String siguienteCursor;
+}
@@ -0,0 +1,27 @@
+package ec.edu.espe.pos.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@Schema(description = "Cierre diario de transacciones agrupado por marca, estado y tipo")
+public class ReporteLiquidacionDTO {
+
+    @Schema(description = "Día liquidado", example = "2025-01-31")
+    private LocalDate fecha;
+
+    @Schema(description = "Totales por marca, estado y tipo")
+    private List<TotalLiquidacionDTO> totales;
+
+    @Schema(description = "Número total de transacciones del día")
+    private long cantidadTotal;
+
+    @Schema(description = "Suma de los montos autorizados (AUT) del día")
+    private BigDecimal montoAutorizado;
+}
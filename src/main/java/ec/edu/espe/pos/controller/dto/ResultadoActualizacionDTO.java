@@ -0,0 +1,21 @@
+package ec.edu.espe.pos.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@Schema(description = "Resultado de una actualización de estado dentro de un lote")
+public class ResultadoActualizacionDTO {
+
+    @Schema(description = "Código único de la transacción")
+    private String codigoUnicoTransaccion;
+
+    @Schema(description = "Estado solicitado")
+    private String estado;
+
+    @Schema(description = "Resultado de la actualización", example = "ACTUALIZADA",
+            allowableValues = { "ACTUALIZADA", "SIN_CAMBIOS", "NO_ENCONTRADA", "INVALIDA", "REEMPLAZADA" })
+    private String resultado;
+}
@@ -5,8 +5,11 @@ import org.mapstruct.MappingConstants;
 import org.mapstruct.ReportingPolicy;
 
 import ec.edu.espe.pos.controller.dto.GatewayTransaccionDTO;
+import ec.edu.espe.pos.model.Monto;
 import ec.edu.espe.pos.model.Transaccion;
 
+import java.math.BigDecimal;
+
 @Mapper(
     componentModel = MappingConstants.ComponentModel.SPRING,
     unmappedTargetPolicy = ReportingPolicy.IGNORE
@@ -17,4 +20,12 @@ public interface TransaccionMapper {
     
     Transaccion toModel(GatewayTransaccionDTO dto);
 
+    default BigDecimal toBigDecimal(Monto monto) {
+        return monto != null ? monto.aBigDecimal() : null;
+    }
+
+    default Monto toMonto(BigDecimal valor) {
+        return Monto.de(valor);
+    }
+
 } 
\ No newline at end of file
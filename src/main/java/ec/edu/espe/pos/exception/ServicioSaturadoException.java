@@ -0,0 +1,16 @@
+package ec.edu.espe.pos.exception;
+
+public class ServicioSaturadoException extends RuntimeException {
+
+    private final String recurso;
+
+    public ServicioSaturadoException(String recurso) {
+        super();
+        this.recurso = recurso;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Capacidad agotada en: " + this.recurso + ", intente nuevamente más tarde";
+    }
+}
@@ -0,0 +1,70 @@
+package ec.edu.espe.pos.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Monto inmutable en centavos.
+ * <p>
+ * Dentro del servicio los montos se comparan y suman como {@code long}, sin crear
+ * {@link BigDecimal} intermedios. La conversión a {@link BigDecimal} solo ocurre en los
+ * bordes: la columna MONTO (con {@link MontoConverter}), el JSON y los DTO del gateway. La
+ * conversión de entrada es exacta: un valor con más de dos decimales se rechaza en lugar
+ * de redondearse.
+ */
+public record Monto(long centavos) implements Comparable<Monto>, Serializable {
+
+    public static final Monto CERO = new Monto(0);
+
+    public static Monto deCentavos(long centavos) {
+        return centavos == 0 ? CERO : new Monto(centavos);
+    }
+
+    /**
+     * Convierte un {@link BigDecimal} con hasta dos decimales; {@code null} se conserva como
+     * {@code null} para que la validación del monto ausente quede donde ya estaba.
+     *
+     * @throws IllegalArgumentException si el valor tiene más de dos decimales o no cabe en un {@code long}
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Monto de(BigDecimal valor) {
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return deCentavos(valor.movePointRight(2).longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Monto inválido, se admiten hasta dos decimales: " + valor);
+        }
+    }
+
+    @JsonValue
+    public BigDecimal aBigDecimal() {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    public boolean esPositivo() {
+        return centavos > 0;
+    }
+
+    public Monto sumar(Monto otro) {
+        return deCentavos(Math.addExact(centavos, otro.centavos));
+    }
+
+    public Monto restar(Monto otro) {
+        return deCentavos(Math.subtractExact(centavos, otro.centavos));
+    }
+
+    @Override
+    public int compareTo(Monto otro) {
+        return Long.compare(centavos, otro.centavos);
+    }
+
+    @Override
+    public String toString() {
+        return aBigDecimal().toPlainString();
+    }
+}
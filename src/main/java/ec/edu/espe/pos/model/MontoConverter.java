@@ -0,0 +1,23 @@
+package ec.edu.espe.pos.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+@Converter(autoApply = true)
+public class MontoConverter implements AttributeConverter<Monto, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Monto monto) {
+        return monto != null ? monto.aBigDecimal() : null;
+    }
+
+    // SQLite guarda los NUMERIC con decimales como REAL: se redondea al centavo lo que
+    // devuelva el driver antes de la conversión exacta
+    @Override
+    public Monto convertToEntityAttribute(BigDecimal valor) {
+        return valor != null ? Monto.de(valor.setScale(2, RoundingMode.HALF_UP)) : null;
+    }
+}
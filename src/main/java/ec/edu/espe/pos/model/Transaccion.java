@@ -8,14 +8,18 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 
 import java.io.Serializable;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "POS_TRANSACCION")
+@Table(name = "POS_TRANSACCION", indexes = {
+    @Index(name = "IDX_TRANSACCION_ESTADO", columnList = "ESTADO, COD_TRANSACCION"),
+    @Index(name = "IDX_TRANSACCION_FECHA", columnList = "FECHA, COD_TRANSACCION"),
+    @Index(name = "IDX_TRANSACCION_ESTADO_FECHA", columnList = "ESTADO, FECHA, COD_TRANSACCION"),
+    @Index(name = "IDX_TRANSACCION_MARCA_FECHA", columnList = "MARCA, FECHA, COD_TRANSACCION")
+})
 public class Transaccion implements Serializable {
 
     @Id
@@ -41,7 +45,7 @@ public class Transaccion implements Serializable {
 
     @NotNull
     @Column(name = "MONTO", precision = 20, scale = 2, nullable = false)
-    private BigDecimal monto;
+    private Monto monto;
 
     @NotNull
     @Column(name = "CODIGO_UNICO_TRANSACCION", length = 64, nullable = false, unique = true)
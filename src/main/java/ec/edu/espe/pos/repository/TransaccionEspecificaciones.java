@@ -0,0 +1,58 @@
+package ec.edu.espe.pos.repository;
+
+import ec.edu.espe.pos.model.Transaccion;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtros de búsqueda de transacciones. Cada método devuelve {@code null} cuando el filtro
+ * no aplica, que {@link Specification#where} y {@code and} ignoran.
+ */
+public final class TransaccionEspecificaciones {
+
+    private static final String ESTADO = "estado";
+    private static final String MARCA = "marca";
+    private static final String TIPO = "tipo";
+    private static final String FECHA = "fecha";
+    private static final String CODIGO = "codigo";
+
+    private TransaccionEspecificaciones() {
+    }
+
+    public static Specification<Transaccion> conEstado(String estado) {
+        return estado == null ? null : (raiz, consulta, cb) -> cb.equal(raiz.get(ESTADO), estado);
+    }
+
+    public static Specification<Transaccion> conMarca(String marca) {
+        return marca == null ? null : (raiz, consulta, cb) -> cb.equal(raiz.get(MARCA), marca);
+    }
+
+    public static Specification<Transaccion> conTipo(String tipo) {
+        return tipo == null ? null : (raiz, consulta, cb) -> cb.equal(raiz.get(TIPO), tipo);
+    }
+
+    public static Specification<Transaccion> desde(LocalDateTime desde) {
+        return desde == null ? null
+                : (raiz, consulta, cb) -> cb.greaterThanOrEqualTo(raiz.get(FECHA), desde);
+    }
+
+    public static Specification<Transaccion> hasta(LocalDateTime hasta) {
+        return hasta == null ? null : (raiz, consulta, cb) -> cb.lessThan(raiz.get(FECHA), hasta);
+    }
+
+    /**
+     * Filas posteriores a la última de la página anterior en el orden (FECHA desc,
+     * COD_TRANSACCION desc). Se escribe como {@code FECHA <= f AND (FECHA < f OR COD < c)} para
+     * que el primer término sea un rango sobre el índice y no haga falta un OFFSET.
+     */
+    public static Specification<Transaccion> despuesDe(LocalDateTime fecha, Integer codigo) {
+        if (fecha == null || codigo == null) {
+            return null;
+        }
+        return (raiz, consulta, cb) -> cb.and(
+                cb.lessThanOrEqualTo(raiz.get(FECHA), fecha),
+                cb.or(cb.lessThan(raiz.get(FECHA), fecha), cb.lessThan(raiz.get(CODIGO), codigo)));
+    }
+}
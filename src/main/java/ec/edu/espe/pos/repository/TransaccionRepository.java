@@ -1,14 +1,66 @@
 package ec.edu.espe.pos.repository;
 
+import ec.edu.espe.pos.controller.dto.EstadoTransaccionDTO;
 import ec.edu.espe.pos.model.Transaccion;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface TransaccionRepository extends JpaRepository<Transaccion, Integer> {
+public interface TransaccionRepository extends JpaRepository<Transaccion, Integer>,
+        JpaSpecificationExecutor<Transaccion>, TransicionEstadoRepository {
     Optional<Transaccion> findByCodigoUnicoTransaccion(String codigoUnicoTransaccion);
     List<Transaccion> findByEstado(String estado);
     List<Transaccion> findByTipoAndEstado(String tipo, String estado);
     Boolean existsByCodigoUnicoTransaccion(String codigoUnicoTransaccion);
-}
\ No newline at end of file
+
+    List<EstadoActual> findByCodigoUnicoTransaccionIn(Collection<String> codigosUnicos);
+
+    Optional<EstadoActual> findFirstByOrderByCodigoDesc();
+
+    @Query("select new ec.edu.espe.pos.controller.dto.EstadoTransaccionDTO(t.estado, t.estadoRecibo, t.monto, "
+            + "t.marca, t.fecha) from Transaccion t where t.codigoUnicoTransaccion = :codigoUnicoTransaccion")
+    Optional<EstadoTransaccionDTO> consultarEstado(@Param("codigoUnicoTransaccion") String codigoUnicoTransaccion);
+
+    @Query("select t.codigo as codigo, t.codigoUnicoTransaccion as codigoUnicoTransaccion from Transaccion t "
+            + "where t.estado = :estado and t.fecha < :anteriorA and t.codigo > :despuesDe order by t.codigo")
+    List<Pendiente> buscarPendientes(@Param("estado") String estado, @Param("anteriorA") LocalDateTime anteriorA,
+            @Param("despuesDe") Integer despuesDe, Limit limite);
+
+    // Nativas: MONTO se mapea a Monto con un convertidor y HQL no admite aritmética sobre él
+    @Query(value = "select t.MARCA as marca, t.ESTADO as estado, t.TIPO as tipo, count(*) as cantidad, "
+            + "sum(cast(round(t.MONTO * 100) as integer)) as totalCentavos from POS_TRANSACCION t "
+            + "where t.FECHA >= :desde and t.FECHA < :hasta "
+            + "group by t.MARCA, t.ESTADO, t.TIPO order by t.MARCA, t.ESTADO, t.TIPO", nativeQuery = true)
+    List<TotalAgrupado> totalizarPorMarcaEstadoTipo(@Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta);
+
+    @Query(value = "select t.MARCA as marca, t.ESTADO as estado, t.TIPO as tipo, count(*) as cantidad, "
+            + "sum(cast(round(t.MONTO * 100) as integer)) as totalCentavos from POS_TRANSACCION t "
+            + "group by t.MARCA, t.ESTADO, t.TIPO", nativeQuery = true)
+    List<TotalAgrupado> totalizarTodoPorMarcaEstadoTipo();
+
+    interface EstadoActual {
+        String getCodigoUnicoTransaccion();
+        String getEstado();
+    }
+
+    interface Pendiente {
+        Integer getCodigo();
+        String getCodigoUnicoTransaccion();
+    }
+
+    interface TotalAgrupado {
+        String getMarca();
+        String getEstado();
+        String getTipo();
+        Long getCantidad();
+        Long getTotalCentavos();
+    }
+}
@@ -0,0 +1,33 @@
+package ec.edu.espe.pos.repository;
+
+import ec.edu.espe.pos.model.Monto;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cambios de estado de POS_TRANSACCION como compare-and-set: un único UPDATE condicionado al
+ * estado de origen, sin leer la fila antes.
+ */
+public interface TransicionEstadoRepository {
+
+    /**
+     * Pasa a {@code estadoNuevo} las transacciones de {@code codigosUnicos} que sigan en
+     * {@code estadoEsperado}; las demás no se tocan. Con {@code detalle} nulo se conserva el
+     * detalle actual. Devuelve solo las filas que cambiaron.
+     */
+    List<EstadoCambiado> cambiarEstados(Collection<String> codigosUnicos, String estadoEsperado,
+            String estadoNuevo, String detalle);
+
+    /**
+     * Como {@link #cambiarEstados}, pero cada transacción recibe su propio detalle
+     * ({@code CASE CODIGO_UNICO_TRANSACCION WHEN ... THEN ...}): un lote de callbacks con
+     * mensajes distintos se aplica en una sola sentencia por estado.
+     */
+    List<EstadoCambiado> cambiarEstadosConDetalle(Map<String, String> detallePorCodigo, String estadoEsperado,
+            String estadoNuevo);
+
+    record EstadoCambiado(String codigoUnicoTransaccion, String marca, Monto monto) {
+    }
+}
@@ -0,0 +1,85 @@
+package ec.edu.espe.pos.repository;
+
+import ec.edu.espe.pos.model.Monto;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * UPDATE ... RETURNING de SQLite: el mismo comando que aplica el cambio devuelve la marca y
+ * el monto en centavos de las filas afectadas, que es lo que necesitan los contadores.
+ */
+public class TransicionEstadoRepositoryImpl implements TransicionEstadoRepository {
+
+    private static final String CONDICION = " where CODIGO_UNICO_TRANSACCION in (:codigosUnicos) "
+            + "and ESTADO = :estadoEsperado "
+            + "returning CODIGO_UNICO_TRANSACCION, MARCA, cast(round(MONTO * 100) as integer)";
+
+    private static final String CAMBIAR_ESTADO = "update POS_TRANSACCION set ESTADO = :estadoNuevo" + CONDICION;
+
+    private static final String CAMBIAR_ESTADO_Y_DETALLE = "update POS_TRANSACCION "
+            + "set ESTADO = :estadoNuevo, DETALLE = :detalle" + CONDICION;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<EstadoCambiado> cambiarEstados(Collection<String> codigosUnicos, String estadoEsperado,
+            String estadoNuevo, String detalle) {
+        if (codigosUnicos.isEmpty()) {
+            return List.of();
+        }
+        Query consulta = entityManager.createNativeQuery(detalle != null ? CAMBIAR_ESTADO_Y_DETALLE : CAMBIAR_ESTADO)
+                .setParameter("estadoNuevo", estadoNuevo)
+                .setParameter("estadoEsperado", estadoEsperado)
+                .setParameter("codigosUnicos", codigosUnicos);
+        if (detalle != null) {
+            consulta.setParameter("detalle", detalle);
+        }
+
+        return leerCambiados(consulta);
+    }
+
+    @Override
+    public List<EstadoCambiado> cambiarEstadosConDetalle(Map<String, String> detallePorCodigo,
+            String estadoEsperado, String estadoNuevo) {
+        if (detallePorCodigo.isEmpty()) {
+            return List.of();
+        }
+        StringBuilder sql = new StringBuilder(
+                "update POS_TRANSACCION set ESTADO = :estadoNuevo, DETALLE = case CODIGO_UNICO_TRANSACCION");
+        for (int i = 0; i < detallePorCodigo.size(); i++) {
+            sql.append(" when :codigo").append(i).append(" then :detalle").append(i);
+        }
+        sql.append(" end").append(CONDICION);
+
+        Query consulta = entityManager.createNativeQuery(sql.toString())
+                .setParameter("estadoNuevo", estadoNuevo)
+                .setParameter("estadoEsperado", estadoEsperado)
+                .setParameter("codigosUnicos", detallePorCodigo.keySet());
+        int i = 0;
+        for (Map.Entry<String, String> entrada : detallePorCodigo.entrySet()) {
+            consulta.setParameter("codigo" + i, entrada.getKey());
+            consulta.setParameter("detalle" + i, entrada.getValue());
+            i++;
+        }
+        return leerCambiados(consulta);
+    }
+
+    private static List<EstadoCambiado> leerCambiados(Query consulta) {
+        List<?> filas = consulta.getResultList();
+        List<EstadoCambiado> cambiados = new ArrayList<>(filas.size());
+        for (Object fila : filas) {
+            Object[] columnas = (Object[]) fila;
+            cambiados.add(new EstadoCambiado((String) columnas[0], (String) columnas[1],
+                    Monto.deCentavos(((Number) columnas[2]).longValue())));
+        }
+        return cambiados;
+    }
+}
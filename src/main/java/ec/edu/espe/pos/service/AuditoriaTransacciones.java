@@ -0,0 +1,193 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.controller.dto.ActualizacionEstadoDTO;
+import ec.edu.espe.pos.controller.dto.GatewayTransaccionDTO;
+import ec.edu.espe.pos.controller.dto.ValidacionTarjetaDTO;
+import ec.edu.espe.pos.model.Transaccion;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Registro de auditoría de las transacciones, fuera del hilo de la petición.
+ * <p>
+ * Quien audita solo arma un registro pequeño y lo deja en un buffer circular acotado; un
+ * hilo propio los escribe como JSON, una línea por registro, en el logger
+ * {@code ec.edu.espe.pos.auditoria}. Si el buffer está lleno el registro se descarta y se
+ * cuenta en {@code pos.auditoria.descartados}: la auditoría nunca frena un pago.
+ * <p>
+ * El número de tarjeta se enmascara al crear el registro (BIN y últimos cuatro dígitos) a
+ * partir de los datos que la validación ya decodificó, así que auditar no vuelve a leer los
+ * datos sensibles y el número completo nunca sale del hilo de la petición. El detalle adicional solo se
+ * arma para la fracción de registros indicada en {@code pos.auditoria.muestreo-detalle}.
+ */
+@Component
+public class AuditoriaTransacciones {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditoriaTransacciones.class);
+    private static final Logger auditoria = LoggerFactory.getLogger("ec.edu.espe.pos.auditoria");
+
+    private static final int LOTE_ESCRITURA = 256;
+    private static final int DIGITOS_BIN = 6;
+    private static final int DIGITOS_FINALES = 4;
+
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<Registro> buffer;
+    private final double muestreoDetalle;
+    private final Counter descartados;
+
+    private Thread hiloEscritor;
+    private volatile boolean activo = true;
+
+    public AuditoriaTransacciones(ObjectMapper objectMapper,
+            MeterRegistry registry,
+            @Value("${pos.auditoria.capacidad:8192}") int capacidad,
+            @Value("${pos.auditoria.muestreo-detalle:0.0}") double muestreoDetalle) {
+        this.objectMapper = objectMapper;
+        this.buffer = new ArrayBlockingQueue<>(capacidad);
+        this.muestreoDetalle = muestreoDetalle;
+        this.descartados = Counter.builder("pos.auditoria.descartados")
+                .description("Registros de auditoría descartados por buffer lleno")
+                .register(registry);
+        Gauge.builder("pos.auditoria.pendientes", buffer, BlockingQueue::size)
+                .description("Registros de auditoría pendientes de escribir")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        hiloEscritor = Thread.ofPlatform().name("pos-auditoria").daemon(true).start(this::escribir);
+    }
+
+    @PreDestroy
+    public void detener() {
+        activo = false;
+        hiloEscritor.interrupt();
+    }
+
+    public void registrar(String evento, GatewayTransaccionDTO solicitud) {
+        publicar(evento, solicitud.getCodigoUnicoTransaccion(), solicitud.getMarca(), solicitud.getMonto(),
+                solicitud.getEstado(), null, () -> {
+                    Map<String, Object> detalle = new LinkedHashMap<>();
+                    detalle.put("tipo", solicitud.getTipo());
+                    detalle.put("moneda", solicitud.getMoneda());
+                    detalle.put("pais", solicitud.getPais());
+                    detalle.put("codigoPos", solicitud.getCodigoPos());
+                    detalle.put("modeloPos", solicitud.getModeloPos());
+                    detalle.put("interesDiferido", solicitud.getInteresDiferido());
+                    detalle.put("cuotas", solicitud.getCuotas());
+                    return detalle;
+                });
+    }
+
+    public void registrar(String evento, Transaccion transaccion) {
+        registrar(evento, transaccion, null);
+    }
+
+    /**
+     * Registro de la transacción con el número de la tarjeta ya decodificada, enmascarado.
+     */
+    public void registrar(String evento, Transaccion transaccion, ValidacionTarjetaDTO tarjeta) {
+        publicar(evento, transaccion.getCodigoUnicoTransaccion(), transaccion.getMarca(),
+                transaccion.getMonto() != null ? transaccion.getMonto().aBigDecimal() : null,
+                transaccion.getEstado(), tarjeta != null ? enmascarar(tarjeta.getNumero()) : null, () -> {
+                    Map<String, Object> detalle = new LinkedHashMap<>();
+                    detalle.put("tipo", transaccion.getTipo());
+                    detalle.put("modalidad", transaccion.getModalidad());
+                    detalle.put("moneda", transaccion.getMoneda());
+                    detalle.put("detalle", transaccion.getDetalle());
+                    detalle.put("estadoRecibo", transaccion.getEstadoRecibo());
+                    detalle.put("fecha", transaccion.getFecha());
+                    return detalle;
+                });
+    }
+
+    public void registrar(String evento, ActualizacionEstadoDTO actualizacion) {
+        publicar(evento, actualizacion.getCodigoUnicoTransaccion(), null, null, actualizacion.getEstado(), null,
+                () -> {
+                    Map<String, Object> detalle = new LinkedHashMap<>();
+                    detalle.put("mensaje", actualizacion.getMensaje());
+                    detalle.put("detalle", actualizacion.getDetalle());
+                    return detalle;
+                });
+    }
+
+    /**
+     * Número de tarjeta reducido a BIN y últimos cuatro dígitos.
+     */
+    static String enmascarar(String numero) {
+        if (numero == null) {
+            return null;
+        }
+        if (numero.length() < DIGITOS_BIN + DIGITOS_FINALES + 3) {
+            return "*".repeat(numero.length());
+        }
+        return numero.substring(0, DIGITOS_BIN)
+                + "*".repeat(numero.length() - DIGITOS_BIN - DIGITOS_FINALES)
+                + numero.substring(numero.length() - DIGITOS_FINALES);
+    }
+
+    private void publicar(String evento, String codigoUnicoTransaccion, String marca, BigDecimal monto,
+            String estado, String tarjeta, Supplier<Map<String, Object>> detalle) {
+        Map<String, Object> muestra = muestreoDetalle > 0 && ThreadLocalRandom.current().nextDouble() < muestreoDetalle
+                ? detalle.get() : null;
+        Registro registro = new Registro(Instant.now(), evento, codigoUnicoTransaccion, marca, monto, estado,
+                tarjeta, muestra);
+        if (!buffer.offer(registro)) {
+            descartados.increment();
+        }
+    }
+
+    private void escribir() {
+        List<Registro> lote = new ArrayList<>(LOTE_ESCRITURA);
+        while (activo) {
+            try {
+                lote.add(buffer.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            buffer.drainTo(lote, LOTE_ESCRITURA - 1);
+            lote.forEach(this::escribir);
+            lote.clear();
+        }
+        buffer.drainTo(lote);
+        lote.forEach(this::escribir);
+    }
+
+    private void escribir(Registro registro) {
+        try {
+            auditoria.info(objectMapper.writeValueAsString(registro));
+        } catch (JsonProcessingException e) {
+            log.warn("No se pudo escribir el registro de auditoría {}: {}", registro.evento(), e.getMessage());
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record Registro(Instant fecha, String evento, String codigoUnicoTransaccion, String marca, BigDecimal monto,
+            String estado, String tarjeta, Map<String, Object> detalle) {
+    }
+}
@@ -0,0 +1,282 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.controller.dto.GatewayTransaccionDTO;
+import ec.edu.espe.pos.exception.ServicioSaturadoException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bandeja de salida persistente con las transacciones que no se pudieron sincronizar con
+ * el gateway.
+ * <p>
+ * Es un archivo de solo anexado mapeado en memoria: una cabecera con los desplazamientos
+ * de lectura y escritura seguida de registros {@code [longitud][IV][payload cifrado]}. Cada
+ * registro y luego la cabecera se fuerzan a disco antes de confirmar el encolado, así que
+ * lo que se encoló sobrevive a un reinicio. Cuando se vacía, los desplazamientos vuelven
+ * al inicio; si falta espacio se compacta moviendo lo pendiente al principio, solo cuando
+ * el destino no se solapa con el origen: así, hasta que se reescribe la cabecera, la copia
+ * original sigue intacta y una caída a mitad de la compactación no pierde registros.
+ * <p>
+ * El payload lleva los datos de la tarjeta, por eso se cifra con AES-GCM. La clave sale de
+ * {@code pos.outbox.clave} (Base64, 256 bits) o, si no se define, de un archivo junto a la
+ * bandeja que se crea la primera vez con permisos solo para el dueño.
+ */
+@Component
+public class BandejaSalidaGateway {
+
+    private static final Logger log = LoggerFactory.getLogger(BandejaSalidaGateway.class);
+
+    private static final int MAGICO = 0x504F5342;
+    private static final int VERSION = 1;
+    private static final int POSICION_LECTURA = 8;
+    private static final int POSICION_ESCRITURA = 12;
+    private static final int CABECERA = 16;
+    private static final int LONGITUD_PREFIJO = Integer.BYTES;
+    private static final int LONGITUD_IV = 12;
+    private static final int BITS_TAG = 128;
+    private static final String ALGORITMO = "AES/GCM/NoPadding";
+
+    private final ObjectMapper objectMapper;
+    private final SecretKey clave;
+    private final SecureRandom aleatorio = new SecureRandom();
+    private final ReentrantLock cerrojo = new ReentrantLock();
+    private final FileChannel canal;
+    private final MappedByteBuffer mapa;
+    private volatile int lectura;
+    private volatile int escritura;
+
+    /** Se ejecuta entre la copia de la compactación y la nueva cabecera; solo para pruebas. */
+    Runnable alCompactar = () -> {
+    };
+
+    public BandejaSalidaGateway(ObjectMapper objectMapper,
+            MeterRegistry registry,
+            @Value("${pos.outbox.archivo:pos-outbox.dat}") Path archivo,
+            @Value("${pos.outbox.capacidad:64MB}") DataSize capacidad,
+            @Value("${pos.outbox.clave:}") String claveBase64) {
+        this.objectMapper = objectMapper;
+        this.clave = cargarClave(archivo, claveBase64);
+        try {
+            this.canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            int tamano = (int) Math.min(Integer.MAX_VALUE, Math.max(capacidad.toBytes(), canal.size()));
+            this.mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamano);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir la bandeja de salida " + archivo, e);
+        }
+
+        if (mapa.getInt(0) == MAGICO) {
+            lectura = mapa.getInt(POSICION_LECTURA);
+            escritura = mapa.getInt(POSICION_ESCRITURA);
+            log.info("Bandeja de salida {} abierta con {} bytes pendientes", archivo, escritura - lectura);
+        } else {
+            mapa.putInt(0, MAGICO);
+            mapa.putInt(4, VERSION);
+            lectura = CABECERA;
+            escritura = CABECERA;
+            escribirCabecera();
+        }
+
+        Gauge.builder("pos.outbox.pendiente", this, bandeja -> bandeja.escritura - bandeja.lectura)
+                .description("Bytes pendientes de reenviar al gateway")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * Guarda el payload en disco. Lanza {@link ServicioSaturadoException} si no cabe.
+     */
+    public void encolar(GatewayTransaccionDTO transaccion) {
+        byte[] cifrado = cifrar(serializar(transaccion));
+        int tamanoRegistro = LONGITUD_PREFIJO + cifrado.length;
+
+        cerrojo.lock();
+        try {
+            if (escritura + tamanoRegistro > mapa.capacity()) {
+                compactar();
+                if (escritura + tamanoRegistro > mapa.capacity()) {
+                    throw new ServicioSaturadoException("bandeja de salida del gateway");
+                }
+            }
+            int posicion = escritura;
+            mapa.put(posicion + LONGITUD_PREFIJO, cifrado);
+            mapa.putInt(posicion, cifrado.length);
+            mapa.force(posicion, tamanoRegistro);
+            escritura = posicion + tamanoRegistro;
+            escribirCabecera();
+        } finally {
+            cerrojo.unlock();
+        }
+        log.info("Transacción {} guardada en la bandeja de salida", transaccion.getCodigoUnicoTransaccion());
+    }
+
+    public boolean tienePendientes() {
+        return lectura != escritura;
+    }
+
+    /**
+     * Registro más antiguo sin confirmar, sin quitarlo de la bandeja.
+     */
+    public Optional<Registro> primero() {
+        cerrojo.lock();
+        try {
+            if (lectura == escritura) {
+                return Optional.empty();
+            }
+            int longitud = mapa.getInt(lectura);
+            byte[] cifrado = new byte[longitud];
+            mapa.get(lectura + LONGITUD_PREFIJO, cifrado);
+            return Optional.of(new Registro(cifrado));
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    public GatewayTransaccionDTO leer(Registro registro) {
+        try {
+            return objectMapper.readValue(descifrar(registro.cifrado()), GatewayTransaccionDTO.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Registro de la bandeja de salida ilegible", e);
+        }
+    }
+
+    /**
+     * Quita de la bandeja el registro devuelto por {@link #primero()}. Solo hay un
+     * consumidor, así que el registro confirmado siempre es el que está al frente aunque
+     * entretanto se haya compactado el archivo.
+     */
+    public void confirmar(Registro registro) {
+        cerrojo.lock();
+        try {
+            lectura += LONGITUD_PREFIJO + registro.cifrado().length;
+            if (lectura >= escritura) {
+                lectura = CABECERA;
+                escritura = CABECERA;
+            }
+            escribirCabecera();
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() throws IOException {
+        cerrojo.lock();
+        try {
+            mapa.force();
+            canal.close();
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    private void compactar() {
+        int pendiente = escritura - lectura;
+        if (lectura == CABECERA || lectura - CABECERA < pendiente) {
+            return;
+        }
+        mapa.put(CABECERA, mapa, lectura, pendiente);
+        mapa.force(CABECERA, pendiente);
+        alCompactar.run();
+        lectura = CABECERA;
+        escritura = CABECERA + pendiente;
+        escribirCabecera();
+    }
+
+    private void escribirCabecera() {
+        mapa.putInt(POSICION_LECTURA, lectura);
+        mapa.putInt(POSICION_ESCRITURA, escritura);
+        mapa.force(0, CABECERA);
+    }
+
+    private byte[] serializar(GatewayTransaccionDTO transaccion) {
+        try {
+            return objectMapper.writeValueAsBytes(transaccion);
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo serializar la transacción para la bandeja de salida", e);
+        }
+    }
+
+    private byte[] cifrar(byte[] datos) {
+        try {
+            byte[] resultado = new byte[LONGITUD_IV + datos.length + BITS_TAG / 8];
+            byte[] iv = new byte[LONGITUD_IV];
+            aleatorio.nextBytes(iv);
+            System.arraycopy(iv, 0, resultado, 0, LONGITUD_IV);
+            Cipher cifrador = Cipher.getInstance(ALGORITMO);
+            cifrador.init(Cipher.ENCRYPT_MODE, clave, new GCMParameterSpec(BITS_TAG, iv));
+            cifrador.doFinal(datos, 0, datos.length, resultado, LONGITUD_IV);
+            return resultado;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo cifrar el registro de la bandeja de salida", e);
+        }
+    }
+
+    private byte[] descifrar(byte[] cifrado) {
+        try {
+            Cipher cifrador = Cipher.getInstance(ALGORITMO);
+            cifrador.init(Cipher.DECRYPT_MODE, clave, new GCMParameterSpec(BITS_TAG, cifrado, 0, LONGITUD_IV));
+            return cifrador.doFinal(cifrado, LONGITUD_IV, cifrado.length - LONGITUD_IV);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo descifrar el registro de la bandeja de salida", e);
+        }
+    }
+
+    private static SecretKey cargarClave(Path archivo, String claveBase64) {
+        if (claveBase64 != null && !claveBase64.isBlank()) {
+            return new SecretKeySpec(Base64.getDecoder().decode(claveBase64.strip()), "AES");
+        }
+        Path archivoClave = archivo.resolveSibling(archivo.getFileName() + ".clave");
+        try {
+            if (Files.exists(archivoClave)) {
+                return new SecretKeySpec(Base64.getDecoder().decode(Files.readString(archivoClave).strip()), "AES");
+            }
+            KeyGenerator generador = KeyGenerator.getInstance("AES");
+            generador.init(256);
+            SecretKey nueva = generador.generateKey();
+            Files.writeString(archivoClave, Base64.getEncoder().encodeToString(nueva.getEncoded()));
+            try {
+                Files.setPosixFilePermissions(archivoClave, PosixFilePermissions.fromString("rw-------"));
+            } catch (UnsupportedOperationException e) {
+                log.warn("No se pudieron restringir los permisos de {}", archivoClave);
+            }
+            log.info("Clave de la bandeja de salida generada en {}", archivoClave);
+            return nueva;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer o crear la clave de la bandeja de salida", e);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES no disponible", e);
+        }
+    }
+
+    public record Registro(byte[] cifrado) {
+    }
+}
@@ -0,0 +1,94 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.exception.InvalidDataException;
+import ec.edu.espe.pos.model.Transaccion;
+import ec.edu.espe.pos.repository.TransaccionRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+import static ec.edu.espe.pos.repository.TransaccionEspecificaciones.conEstado;
+import static ec.edu.espe.pos.repository.TransaccionEspecificaciones.conMarca;
+import static ec.edu.espe.pos.repository.TransaccionEspecificaciones.conTipo;
+import static ec.edu.espe.pos.repository.TransaccionEspecificaciones.desde;
+import static ec.edu.espe.pos.repository.TransaccionEspecificaciones.despuesDe;
+import static ec.edu.espe.pos.repository.TransaccionEspecificaciones.hasta;
+
+/**
+ * Búsqueda de transacciones con paginación por cursor sobre (FECHA, COD_TRANSACCION).
+ * <p>
+ * El cursor es la clave de la última fila entregada; la página siguiente se busca desde
+ * ella con los índices compuestos de {@code POS_TRANSACCION}, así que el costo no depende
+ * de la profundidad de la página. Se lee una fila de más para saber si hay otra página.
+ */
+@Service
+public class BusquedaTransaccionService {
+
+    private static final Sort ORDEN = Sort.by(Sort.Direction.DESC, "fecha")
+            .and(Sort.by(Sort.Direction.DESC, "codigo"));
+    private static final char SEPARADOR_CURSOR = '|';
+
+    private final TransaccionRepository transaccionRepository;
+    private final int tamanoMaximo;
+
+    public BusquedaTransaccionService(TransaccionRepository transaccionRepository,
+            @Value("${pos.busqueda.tamano-maximo:200}") int tamanoMaximo) {
+        this.transaccionRepository = transaccionRepository;
+        this.tamanoMaximo = tamanoMaximo;
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaTransacciones buscar(String estado, String marca, String tipo, LocalDateTime fechaDesde,
+            LocalDateTime fechaHasta, String cursor, int tamano) {
+        if (tamano < 1 || tamano > tamanoMaximo) {
+            throw new InvalidDataException("El tamaño de página debe estar entre 1 y " + tamanoMaximo);
+        }
+
+        Specification<Transaccion> filtro = Specification.where(conEstado(estado))
+                .and(conMarca(marca))
+                .and(conTipo(tipo))
+                .and(desde(fechaDesde))
+                .and(hasta(fechaHasta));
+        if (cursor != null && !cursor.isBlank()) {
+            Transaccion ultima = leerCursor(cursor);
+            filtro = filtro.and(despuesDe(ultima.getFecha(), ultima.getCodigo()));
+        }
+
+        List<Transaccion> filas = transaccionRepository.findBy(filtro,
+                consulta -> consulta.sortBy(ORDEN).limit(tamano + 1).all());
+        if (filas.size() <= tamano) {
+            return new PaginaTransacciones(filas, null);
+        }
+        List<Transaccion> pagina = filas.subList(0, tamano);
+        return new PaginaTransacciones(pagina, crearCursor(pagina.get(tamano - 1)));
+    }
+
+    private static String crearCursor(Transaccion ultima) {
+        String clave = ultima.getFecha().toString() + SEPARADOR_CURSOR + ultima.getCodigo();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(clave.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Transaccion leerCursor(String cursor) {
+        try {
+            String clave = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = clave.lastIndexOf(SEPARADOR_CURSOR);
+            Transaccion ultima = new Transaccion(Integer.valueOf(clave.substring(separador + 1)));
+            ultima.setFecha(LocalDateTime.parse(clave.substring(0, separador)));
+            return ultima;
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new InvalidDataException("Cursor de paginación inválido");
+        }
+    }
+
+    public record PaginaTransacciones(List<Transaccion> transacciones, String siguienteCursor) {
+    }
+}
@@ -0,0 +1,178 @@
+package ec.edu.espe.pos.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker sin bloqueos para una dependencia remota.
+ * <p>
+ * Cada estado es un objeto inmutable ({@link Generacion}) que se reemplaza con CAS; las
+ * llamadas devuelven la generación con la que entraron, de modo que un resultado que llega
+ * tarde nunca altera un estado posterior. En CERRADO se lleva una ventana deslizante de las
+ * últimas llamadas y se abre si la tasa de fallos o de llamadas lentas supera su umbral. En
+ * ABIERTO se rechaza todo hasta que vence la espera; luego en SEMIABIERTO se dejan pasar
+ * unas pocas sondas: si todas salen bien se cierra, al primer fallo se vuelve a abrir.
+ */
+class CircuitoProteccion {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitoProteccion.class);
+
+    enum Estado { CERRADO, ABIERTO, SEMIABIERTO }
+
+    private final String nombre;
+    private final int tamanoVentana;
+    private final int minimoLlamadas;
+    private final int umbralFallos;
+    private final int umbralLentas;
+    private final long llamadaLentaNanos;
+    private final long esperaAbiertoNanos;
+    private final int sondas;
+    private final LongSupplier reloj;
+    private final AtomicReference<Generacion> actual;
+
+    CircuitoProteccion(String nombre, int tamanoVentana, int minimoLlamadas, int porcentajeFallos,
+            int porcentajeLentas, Duration llamadaLenta, Duration esperaAbierto, int sondas) {
+        this(nombre, tamanoVentana, minimoLlamadas, porcentajeFallos, porcentajeLentas, llamadaLenta,
+                esperaAbierto, sondas, System::nanoTime);
+    }
+
+    CircuitoProteccion(String nombre, int tamanoVentana, int minimoLlamadas, int porcentajeFallos,
+            int porcentajeLentas, Duration llamadaLenta, Duration esperaAbierto, int sondas, LongSupplier reloj) {
+        this.nombre = nombre;
+        this.tamanoVentana = tamanoVentana;
+        this.minimoLlamadas = Math.min(minimoLlamadas, tamanoVentana);
+        this.umbralFallos = porcentajeFallos;
+        this.umbralLentas = porcentajeLentas;
+        this.llamadaLentaNanos = llamadaLenta.toNanos();
+        this.esperaAbiertoNanos = esperaAbierto.toNanos();
+        this.sondas = sondas;
+        this.reloj = reloj;
+        this.actual = new AtomicReference<>(cerrado());
+    }
+
+    /**
+     * Pide permiso para llamar a la dependencia. Devuelve la generación a la que se debe
+     * informar el resultado, o {@code null} si el circuito no deja pasar la llamada.
+     */
+    Generacion permitir() {
+        Generacion generacion = actual.get();
+        if (generacion.estado == Estado.ABIERTO) {
+            if (reloj.getAsLong() - generacion.desde < esperaAbiertoNanos) {
+                return null;
+            }
+            Generacion semiabierto = new Generacion(Estado.SEMIABIERTO, reloj.getAsLong(), null);
+            generacion = cambiar(generacion, semiabierto) ? semiabierto : actual.get();
+        }
+        if (generacion.estado == Estado.SEMIABIERTO) {
+            return generacion.sondasRestantes.getAndDecrement() > 0 ? generacion : null;
+        }
+        return generacion.estado == Estado.CERRADO ? generacion : null;
+    }
+
+    void registrar(Generacion generacion, boolean fallo, long duracionNanos) {
+        boolean lenta = duracionNanos >= llamadaLentaNanos;
+        switch (generacion.estado) {
+            case CERRADO -> {
+                if (generacion.ventana.registrar(fallo, lenta)) {
+                    cambiar(generacion, abierto());
+                }
+            }
+            case SEMIABIERTO -> {
+                if (fallo || lenta) {
+                    cambiar(generacion, abierto());
+                } else if (generacion.sondasExitosas.incrementAndGet() == sondas) {
+                    cambiar(generacion, cerrado());
+                }
+            }
+            case ABIERTO -> {
+                // Llamada iniciada antes de abrir el circuito: ya no cuenta
+            }
+        }
+    }
+
+    Estado estado() {
+        return actual.get().estado;
+    }
+
+    private boolean cambiar(Generacion anterior, Generacion nueva) {
+        if (!actual.compareAndSet(anterior, nueva)) {
+            return false;
+        }
+        if (nueva.estado == Estado.ABIERTO) {
+            log.warn("Circuito {} abierto: se suspenden las llamadas por {} ms", nombre, esperaAbiertoNanos / 1_000_000);
+        } else {
+            log.info("Circuito {} pasa de {} a {}", nombre, anterior.estado, nueva.estado);
+        }
+        return true;
+    }
+
+    private Generacion cerrado() {
+        return new Generacion(Estado.CERRADO, reloj.getAsLong(), new Ventana());
+    }
+
+    private Generacion abierto() {
+        return new Generacion(Estado.ABIERTO, reloj.getAsLong(), null);
+    }
+
+    final class Generacion {
+
+        private final Estado estado;
+        private final long desde;
+        private final Ventana ventana;
+        private final AtomicInteger sondasRestantes = new AtomicInteger(sondas);
+        private final AtomicInteger sondasExitosas = new AtomicInteger();
+
+        private Generacion(Estado estado, long desde, Ventana ventana) {
+            this.estado = estado;
+            this.desde = desde;
+            this.ventana = ventana;
+        }
+    }
+
+    /**
+     * Últimas {@code tamanoVentana} llamadas en un arreglo circular. Cada casilla guarda el
+     * resultado como bits y los contadores se ajustan con la diferencia entre el resultado
+     * nuevo y el que se sobrescribe.
+     */
+    private final class Ventana {
+
+        private static final int OCUPADA = 1;
+        private static final int FALLO = 2;
+        private static final int LENTA = 4;
+
+        private final AtomicIntegerArray resultados = new AtomicIntegerArray(tamanoVentana);
+        private final AtomicLong posicion = new AtomicLong();
+        private final AtomicInteger llamadas = new AtomicInteger();
+        private final AtomicInteger fallos = new AtomicInteger();
+        private final AtomicInteger lentas = new AtomicInteger();
+
+        /**
+         * Registra una llamada y devuelve {@code true} si con ella se supera algún umbral.
+         */
+        boolean registrar(boolean fallo, boolean lenta) {
+            int nuevo = OCUPADA | (fallo ? FALLO : 0) | (lenta ? LENTA : 0);
+            int casilla = (int) (posicion.getAndIncrement() % tamanoVentana);
+            int anterior = resultados.getAndSet(casilla, nuevo);
+
+            int totalLlamadas = (anterior & OCUPADA) == 0 ? llamadas.incrementAndGet() : llamadas.get();
+            int totalFallos = fallos.addAndGet(bit(nuevo, FALLO) - bit(anterior, FALLO));
+            int totalLentas = lentas.addAndGet(bit(nuevo, LENTA) - bit(anterior, LENTA));
+            if (totalLlamadas < minimoLlamadas) {
+                return false;
+            }
+            return totalFallos * 100 >= umbralFallos * totalLlamadas
+                    || totalLentas * 100 >= umbralLentas * totalLlamadas;
+        }
+
+        private static int bit(int resultado, int mascara) {
+            return (resultado & mascara) != 0 ? 1 : 0;
+        }
+    }
+}
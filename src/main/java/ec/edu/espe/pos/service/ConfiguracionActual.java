@@ -0,0 +1,25 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.model.Configuracion;
+
+import java.time.LocalDateTime;
+
+/**
+ * Copia inmutable de la configuración vigente del POS, usada en el camino de pago.
+ */
+public record ConfiguracionActual(
+        String codigoPos,
+        String modeloPos,
+        Integer codigoComercio,
+        String direccionMac,
+        LocalDateTime fechaActivacion) {
+
+    public static ConfiguracionActual desde(Configuracion configuracion) {
+        return new ConfiguracionActual(
+                configuracion.getPk().getCodigo(),
+                configuracion.getPk().getModelo(),
+                configuracion.getCodigoComercio(),
+                configuracion.getDireccionMac(),
+                configuracion.getFechaActivacion());
+    }
+}
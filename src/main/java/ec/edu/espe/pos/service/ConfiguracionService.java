@@ -9,9 +9,15 @@ import ec.edu.espe.pos.exception.DuplicateException;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Pattern;
 
 import lombok.RequiredArgsConstructor;
@@ -31,6 +37,28 @@ public class ConfiguracionService {
 
     private final ConfiguracionRepository configuracionRepository;
 
+    private final AtomicReference<Instantanea> instantanea = new AtomicReference<>(Instantanea.VACIA);
+    private final ReentrantLock recarga = new ReentrantLock();
+
+    /**
+     * Lee la configuración y la publica bajo un cerrojo: si dos commits cercanos recargan a
+     * la vez, la última lectura es la última en publicarse y no queda instalada una anterior.
+     */
+    @PostConstruct
+    public void recargarConfiguracionActual() {
+        recarga.lock();
+        try {
+            List<Configuracion> configuraciones = configuracionRepository.findAll();
+            Instantanea nueva = configuraciones.size() == 1
+                    ? new Instantanea(ConfiguracionActual.desde(configuraciones.get(0)), 1)
+                    : new Instantanea(null, configuraciones.size());
+            instantanea.set(nueva);
+            log.info("Configuración actual del POS cargada en memoria. Registros: {}", nueva.total());
+        } finally {
+            recarga.unlock();
+        }
+    }
+
     @Transactional(readOnly = true)
     public Configuracion obtenerPorId(ConfiguracionPK id) {
         log.info("Buscando configuración con ID: {}", id);
@@ -50,6 +78,7 @@ public class ConfiguracionService {
             configuracion.setPk(pk);
 
             Configuracion configuracionGuardada = configuracionRepository.save(configuracion);
+            recargarAlConfirmar();
             log.info("Configuración creada exitosamente");
             return configuracionGuardada;
         } catch (Exception e) {
@@ -58,21 +87,19 @@ public class ConfiguracionService {
         }
     }
 
-    @Transactional(readOnly = true)
-    public Configuracion obtenerConfiguracionActual() {
-        log.info("Obteniendo configuración actual del POS");
-        List<Configuracion> configuraciones = configuracionRepository.findAll();
+    public ConfiguracionActual obtenerConfiguracionActual() {
+        Instantanea actual = instantanea.get();
 
-        if (configuraciones.isEmpty()) {
+        if (actual.total() == 0) {
             log.error("No existe configuración para este POS");
             throw new NotFoundException("configuracion-actual", ENTITY_NAME);
         }
-        if (configuraciones.size() > 1) {
+        if (actual.total() > 1) {
             log.error("Se encontraron múltiples configuraciones para el POS");
             throw new DuplicateException("múltiples configuraciones", ENTITY_NAME);
         }
 
-        return configuraciones.get(0);
+        return actual.configuracion();
     }
 
     @Transactional(readOnly = true)
@@ -91,7 +118,22 @@ public class ConfiguracionService {
         }
 
         configuracion.setFechaActivacion(nuevaFechaActivacion);
-        return configuracionRepository.save(configuracion);
+        Configuracion configuracionGuardada = configuracionRepository.save(configuracion);
+        recargarAlConfirmar();
+        return configuracionGuardada;
+    }
+
+    private void recargarAlConfirmar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recargarConfiguracionActual();
+                }
+            });
+        } else {
+            recargarConfiguracionActual();
+        }
     }
 
     private void validarConfiguracion(Configuracion configuracion) {
@@ -159,4 +201,8 @@ public class ConfiguracionService {
                     }
                 });
     }
+
+    private record Instantanea(ConfiguracionActual configuracion, int total) {
+        private static final Instantanea VACIA = new Instantanea(null, 0);
+    }
 }
\ No newline at end of file
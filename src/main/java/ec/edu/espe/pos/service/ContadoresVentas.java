@@ -0,0 +1,99 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.controller.dto.ContadorVentasDTO;
+import ec.edu.espe.pos.model.Monto;
+import ec.edu.espe.pos.repository.TransaccionRepository;
+import ec.edu.espe.pos.repository.TransaccionRepository.TotalAgrupado;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Totales en vivo (cantidad y monto en centavos) por marca y estado.
+ * <p>
+ * Se reconstruyen una vez al arrancar con una consulta agrupada y desde ahí los mantiene
+ * {@link TransaccionService} en cada cambio de estado ya persistido: se resta del estado
+ * anterior y se suma al nuevo. Cada total es un par de {@link LongAdder}, que reparten las
+ * escrituras concurrentes en celdas distintas, así que leerlos no consulta la base ni
+ * bloquea a los pagos.
+ */
+@Component
+public class ContadoresVentas {
+
+    private static final Logger log = LoggerFactory.getLogger(ContadoresVentas.class);
+
+    private final TransaccionRepository transaccionRepository;
+    private final Map<Clave, Contador> contadores = new ConcurrentHashMap<>();
+
+    public ContadoresVentas(TransaccionRepository transaccionRepository) {
+        this.transaccionRepository = transaccionRepository;
+    }
+
+    @PostConstruct
+    public void reconstruir() {
+        contadores.clear();
+        for (TotalAgrupado total : transaccionRepository.totalizarTodoPorMarcaEstadoTipo()) {
+            Contador contador = contador(total.getMarca(), total.getEstado());
+            contador.cantidad.add(total.getCantidad());
+            contador.centavos.add(total.getTotalCentavos() != null ? total.getTotalCentavos() : 0L);
+        }
+        log.info("Contadores de ventas reconstruidos: {} combinaciones de marca y estado", contadores.size());
+    }
+
+    /**
+     * Registra una transacción que pasó de {@code estadoAnterior} a {@code estadoNuevo};
+     * {@code null} como estado anterior indica una transacción nueva.
+     */
+    public void registrarTransicion(String marca, Monto monto, String estadoAnterior, String estadoNuevo) {
+        if (Objects.equals(estadoAnterior, estadoNuevo) || monto == null) {
+            return;
+        }
+        long centavos = monto.centavos();
+        if (estadoAnterior != null) {
+            Contador anterior = contador(marca, estadoAnterior);
+            anterior.cantidad.decrement();
+            anterior.centavos.add(-centavos);
+        }
+        if (estadoNuevo != null) {
+            Contador nuevo = contador(marca, estadoNuevo);
+            nuevo.cantidad.increment();
+            nuevo.centavos.add(centavos);
+        }
+    }
+
+    public List<ContadorVentasDTO> obtenerTotales() {
+        return contadores.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(Clave::marca, Comparator.nullsFirst(Comparator.naturalOrder()))
+                        .thenComparing(Clave::estado, Comparator.nullsFirst(Comparator.naturalOrder()))))
+                .map(entrada -> ContadorVentasDTO.builder()
+                        .marca(entrada.getKey().marca())
+                        .estado(entrada.getKey().estado())
+                        .cantidad(entrada.getValue().cantidad.sum())
+                        .total(BigDecimal.valueOf(entrada.getValue().centavos.sum(), 2))
+                        .build())
+                .toList();
+    }
+
+    private Contador contador(String marca, String estado) {
+        return contadores.computeIfAbsent(new Clave(marca, estado), clave -> new Contador());
+    }
+
+    private record Clave(String marca, String estado) {
+    }
+
+    private static final class Contador {
+        private final LongAdder cantidad = new LongAdder();
+        private final LongAdder centavos = new LongAdder();
+    }
+}
@@ -0,0 +1,82 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.controller.dto.ValidacionTarjetaDTO;
+import ec.edu.espe.pos.exception.TarjetaInvalidaException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Extrae cardNumber, expiryDate y cvv del JSON de datos sensibles sin construir un árbol.
+ * El objeto debe ser todo el contenido: cualquier token después de él se rechaza.
+ * El {@link JsonFactory} es inmutable y seguro entre hilos, por eso se comparte.
+ * Los errores de sintaxis llevan un mensaje fijo: el de Jackson puede repetir dígitos de la tarjeta.
+ */
+@Component
+public class DecodificadorDatosTarjeta {
+
+    private static final JsonFactory FABRICA_JSON = JsonFactory.builder().build();
+
+    private static final String CAMPO_NUMERO = "cardNumber";
+    private static final String CAMPO_FECHA_CADUCIDAD = "expiryDate";
+    private static final String CAMPO_CVV = "cvv";
+
+    public ValidacionTarjetaDTO decodificar(String datosSensibles) {
+        if (datosSensibles == null || datosSensibles.isBlank()) {
+            throw new TarjetaInvalidaException("Datos de tarjeta vacíos");
+        }
+
+        String numero = null;
+        String fechaCaducidad = null;
+        String cvv = null;
+
+        try (JsonParser parser = FABRICA_JSON.createParser(datosSensibles)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new TarjetaInvalidaException("Los datos de tarjeta deben ser un objeto JSON");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String campo = parser.currentName();
+                JsonToken valor = parser.nextToken();
+                switch (campo) {
+                    case CAMPO_NUMERO -> numero = leerTexto(parser, valor, campo);
+                    case CAMPO_FECHA_CADUCIDAD -> fechaCaducidad = leerTexto(parser, valor, campo);
+                    case CAMPO_CVV -> cvv = leerTexto(parser, valor, campo);
+                    default -> parser.skipChildren();
+                }
+            }
+            if (parser.currentToken() != JsonToken.END_OBJECT) {
+                throw new TarjetaInvalidaException("Datos de tarjeta incompletos");
+            }
+            if (parser.nextToken() != null) {
+                throw new TarjetaInvalidaException("Contenido inesperado después de los datos de tarjeta");
+            }
+        } catch (IOException e) {
+            throw new TarjetaInvalidaException("Formato de datos de tarjeta inválido");
+        }
+
+        ValidacionTarjetaDTO validacionDTO = new ValidacionTarjetaDTO();
+        validacionDTO.setNumero(requerido(numero, CAMPO_NUMERO));
+        validacionDTO.setFechaCaducidad(requerido(fechaCaducidad, CAMPO_FECHA_CADUCIDAD));
+        validacionDTO.setCvv(requerido(cvv, CAMPO_CVV));
+        return validacionDTO;
+    }
+
+    private static String leerTexto(JsonParser parser, JsonToken valor, String campo) throws IOException {
+        if (valor != JsonToken.VALUE_STRING && valor != JsonToken.VALUE_NUMBER_INT) {
+            throw new TarjetaInvalidaException("Tipo de dato inválido en el campo " + campo);
+        }
+        return parser.getText();
+    }
+
+    private static String requerido(String valor, String campo) {
+        if (valor == null || valor.isEmpty()) {
+            throw new TarjetaInvalidaException("Falta el campo " + campo);
+        }
+        return valor;
+    }
+}
@@ -0,0 +1,53 @@
+package ec.edu.espe.pos.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Recuerda los callbacks de estado ya aplicados para responder los reintentos del gateway
+ * con el mismo código HTTP sin volver a leer ni escribir la base.
+ * <p>
+ * La clave es (código único, estado, mensaje): solo se responde desde aquí un callback
+ * idéntico; uno con otro mensaje para el mismo estado llega al servicio como nuevo. Los
+ * eventos recientes se guardan en una caché acotada que expira por tiempo.
+ */
+@Component
+public class DeduplicadorCallbacks {
+
+    private final Cache<String, Integer> respuestas;
+
+    public DeduplicadorCallbacks(
+            @Value("${pos.callbacks.max-entradas:100000}") long maxEntradas,
+            @Value("${pos.callbacks.retencion:1h}") Duration retencion) {
+        this.respuestas = Caffeine.newBuilder()
+                .maximumSize(maxEntradas)
+                .expireAfterWrite(retencion)
+                .build();
+    }
+
+    /**
+     * Código HTTP con el que se respondió antes el mismo callback, o {@code null} si es nuevo.
+     */
+    public Integer respuestaPrevia(String codigoUnicoTransaccion, String estado, String mensaje) {
+        if (codigoUnicoTransaccion == null || estado == null) {
+            return null;
+        }
+        return respuestas.getIfPresent(clave(codigoUnicoTransaccion, estado, mensaje));
+    }
+
+    public void registrar(String codigoUnicoTransaccion, String estado, String mensaje, int codigoHttp) {
+        if (codigoUnicoTransaccion == null || estado == null) {
+            return;
+        }
+        respuestas.put(clave(codigoUnicoTransaccion, estado, mensaje), codigoHttp);
+    }
+
+    private static String clave(String codigoUnicoTransaccion, String estado, String mensaje) {
+        return codigoUnicoTransaccion + '|' + estado + '|' + (mensaje != null ? mensaje : "");
+    }
+}
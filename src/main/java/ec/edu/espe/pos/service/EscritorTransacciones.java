@@ -0,0 +1,201 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.model.Transaccion;
+import ec.edu.espe.pos.repository.TransaccionRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Único escritor de POS_TRANSACCION.
+ * <p>
+ * SQLite serializa a los escritores y cada commit implica un fsync, así que las
+ * escrituras concurrentes se encolan y un solo hilo las confirma por lotes en una misma
+ * transacción (group commit). Quien llama queda bloqueado hasta que su lote se confirma,
+ * por lo que la respuesta sigue siendo durable. Si un lote falla, cada operación se
+ * reintenta en su propia transacción para aislar a la que provocó el error.
+ */
+@Component
+public class EscritorTransacciones {
+
+    private static final Logger log = LoggerFactory.getLogger(EscritorTransacciones.class);
+    private static final String DETENIDO = "Escritor de transacciones detenido";
+
+    private final TransaccionRepository transaccionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Operacion<?>> cola;
+    private final int loteMaximo;
+    private final long esperaMaximaNanos;
+
+    private Thread hiloEscritor;
+    private volatile boolean activo = true;
+
+    public EscritorTransacciones(TransaccionRepository transaccionRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${pos.escritura.lote-maximo:64}") int loteMaximo,
+            @Value("${pos.escritura.espera-maxima:1ms}") Duration esperaMaxima,
+            @Value("${pos.escritura.capacidad-cola:4096}") int capacidadCola) {
+        this.transaccionRepository = transaccionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cola = new ArrayBlockingQueue<>(capacidadCola);
+        this.loteMaximo = loteMaximo;
+        this.esperaMaximaNanos = esperaMaxima.toNanos();
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        hiloEscritor = Thread.ofPlatform().name("pos-escritor").daemon(true).start(this::escribir);
+    }
+
+    @PreDestroy
+    public void detener() {
+        activo = false;
+        hiloEscritor.interrupt();
+    }
+
+    public Transaccion guardar(Transaccion transaccion) {
+        Integer codigoPrevio = transaccion.getCodigo();
+        return ejecutar(() -> transaccionRepository.save(transaccion), () -> transaccion.setCodigo(codigoPrevio));
+    }
+
+    public List<Transaccion> guardarTodos(List<Transaccion> transacciones) {
+        List<Integer> codigosPrevios = transacciones.stream().map(Transaccion::getCodigo).toList();
+        return ejecutar(() -> transaccionRepository.saveAll(transacciones), () -> {
+            for (int i = 0; i < transacciones.size(); i++) {
+                transacciones.get(i).setCodigo(codigosPrevios.get(i));
+            }
+        });
+    }
+
+    public <T> T ejecutar(Supplier<T> operacion) {
+        return ejecutar(operacion, () -> {
+        });
+    }
+
+    /**
+     * Ejecuta la operación dentro del próximo lote y espera a que se confirme. Después de
+     * {@link #detener()} falla de inmediato con {@link IllegalStateException}.
+     *
+     * @param alDeshacer restaura el estado en memoria que la operación haya modificado
+     *                   (por ejemplo el id asignado a una entidad nueva) si el lote se revierte
+     */
+    public <T> T ejecutar(Supplier<T> operacion, Runnable alDeshacer) {
+        if (!activo) {
+            throw new IllegalStateException(DETENIDO);
+        }
+        Operacion<T> pendiente = new Operacion<>(operacion, alDeshacer);
+        try {
+            cola.put(pendiente);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Escritura interrumpida", e);
+        }
+        // Si se detuvo mientras se encolaba, el hilo escritor pudo vaciar la cola antes: la
+        // operación que sigue en la cola se retira aquí; la que él tomó, la falla él
+        if (!activo && cola.remove(pendiente)) {
+            throw new IllegalStateException(DETENIDO);
+        }
+        try {
+            return pendiente.resultado.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    private void escribir() {
+        List<Operacion<?>> lote = new ArrayList<>(loteMaximo);
+        while (activo) {
+            try {
+                lote.add(cola.take());
+                completarLote(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            confirmar(lote);
+            lote.clear();
+        }
+        cola.drainTo(lote);
+        IllegalStateException detenido = new IllegalStateException(DETENIDO);
+        lote.forEach(operacion -> operacion.resultado.completeExceptionally(detenido));
+    }
+
+    private void completarLote(List<Operacion<?>> lote) throws InterruptedException {
+        cola.drainTo(lote, loteMaximo - lote.size());
+        long limite = System.nanoTime() + esperaMaximaNanos;
+        while (lote.size() < loteMaximo) {
+            long restante = limite - System.nanoTime();
+            if (restante <= 0) {
+                return;
+            }
+            Operacion<?> siguiente = cola.poll(restante, TimeUnit.NANOSECONDS);
+            if (siguiente == null) {
+                return;
+            }
+            lote.add(siguiente);
+            cola.drainTo(lote, loteMaximo - lote.size());
+        }
+    }
+
+    private void confirmar(List<Operacion<?>> lote) {
+        try {
+            transactionTemplate.executeWithoutResult(estado -> lote.forEach(Operacion::ejecutar));
+            lote.forEach(Operacion::completar);
+            log.debug("Lote de {} escrituras confirmado", lote.size());
+        } catch (RuntimeException e) {
+            lote.forEach(Operacion::deshacer);
+            if (lote.size() == 1) {
+                lote.get(0).resultado.completeExceptionally(e);
+                return;
+            }
+            log.warn("Lote de {} escrituras revertido, se reintenta cada operación: {}", lote.size(), e.getMessage());
+            lote.forEach(operacion -> confirmar(List.of(operacion)));
+        }
+    }
+
+    private static final class Operacion<T> {
+
+        private final Supplier<T> accion;
+        private final Runnable alDeshacer;
+        private final CompletableFuture<T> resultado = new CompletableFuture<>();
+        private T valor;
+
+        private Operacion(Supplier<T> accion, Runnable alDeshacer) {
+            this.accion = accion;
+            this.alDeshacer = alDeshacer;
+        }
+
+        private void ejecutar() {
+            valor = accion.get();
+        }
+
+        private void completar() {
+            resultado.complete(valor);
+        }
+
+        private void deshacer() {
+            valor = null;
+            alDeshacer.run();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.client.GatewayComercioClient;
+import ec.edu.espe.pos.controller.dto.FacturacionComercioDTO;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Cache de la facturación de comercios consultada al gateway.
+ * <p>
+ * Pasado el TTL la entrada se sigue sirviendo mientras se recarga en segundo
+ * plano; si la recarga falla se conserva el valor anterior hasta {@code max-stale}.
+ * Caffeine garantiza una sola carga concurrente por comercio.
+ */
+@Component
+public class FacturacionComercioCache {
+
+    private static final Logger log = LoggerFactory.getLogger(FacturacionComercioCache.class);
+    private static final String NOMBRE_CACHE = "facturacionComercio";
+
+    private final GatewayComercioClient comercioClient;
+    private final LoadingCache<Integer, FacturacionComercioDTO> cache;
+
+    public FacturacionComercioCache(GatewayComercioClient comercioClient,
+            ExecutorService ejecutorVirtual,
+            MeterRegistry meterRegistry,
+            @Value("${pos.cache.facturacion.ttl:10m}") Duration ttl,
+            @Value("${pos.cache.facturacion.max-stale:24h}") Duration maxStale,
+            @Value("${pos.cache.facturacion.max-entradas:1000}") long maxEntradas) {
+        this.comercioClient = comercioClient;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntradas)
+                .refreshAfterWrite(ttl)
+                .expireAfterWrite(maxStale)
+                .executor(ejecutorVirtual)
+                .recordStats()
+                .build(this::cargar);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NOMBRE_CACHE);
+    }
+
+    public FacturacionComercioDTO obtener(Integer codigoComercio) {
+        return cache.get(codigoComercio);
+    }
+
+    public void invalidar(Integer codigoComercio) {
+        cache.invalidate(codigoComercio);
+    }
+
+    private FacturacionComercioDTO cargar(Integer codigoComercio) {
+        log.info("Consultando facturación del comercio {} en el gateway", codigoComercio);
+        return comercioClient.obtenerFacturacionPorComercio(codigoComercio);
+    }
+}
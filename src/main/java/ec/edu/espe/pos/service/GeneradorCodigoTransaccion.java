@@ -0,0 +1,75 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.repository.TransaccionRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Genera el código único de transacción: {@code TRX<codigoPos>-<milisegundo><secuencia>}.
+ * <p>
+ * El sufijo numérico es {@code milisegundos * 1000 + secuencia} y se obtiene con una
+ * operación CAS sobre un {@link AtomicLong}, de modo que es estrictamente creciente en el
+ * proceso aunque lleguen varias transacciones en el mismo milisegundo o el reloj retroceda.
+ * Al arrancar se continúa desde el sufijo de la última transacción guardada, así que un
+ * reinicio con el reloj atrasado tampoco repite códigos. El código del POS distingue
+ * terminales entre sí.
+ */
+@Component
+public class GeneradorCodigoTransaccion {
+
+    private static final Logger log = LoggerFactory.getLogger(GeneradorCodigoTransaccion.class);
+    private static final String PREFIJO = "TRX";
+    private static final long SECUENCIAS_POR_MILISEGUNDO = 1000L;
+    private static final int LONGITUD_SUFIJO = 19;
+
+    private final AtomicLong ultimoValor = new AtomicLong();
+    private final LongSupplier reloj;
+
+    @Autowired
+    public GeneradorCodigoTransaccion(TransaccionRepository transaccionRepository) {
+        this(System::currentTimeMillis);
+        transaccionRepository.findFirstByOrderByCodigoDesc()
+                .map(TransaccionRepository.EstadoActual::getCodigoUnicoTransaccion)
+                .ifPresent(this::continuarDesde);
+    }
+
+    GeneradorCodigoTransaccion(LongSupplier reloj) {
+        this.reloj = reloj;
+    }
+
+    public String generar(String codigoPos) {
+        long valor = siguienteValor();
+        return new StringBuilder(PREFIJO.length() + codigoPos.length() + 1 + LONGITUD_SUFIJO)
+                .append(PREFIJO)
+                .append(codigoPos)
+                .append('-')
+                .append(valor)
+                .toString();
+    }
+
+    /**
+     * Hace que el próximo sufijo sea mayor que el de {@code ultimoCodigo}. Los códigos con
+     * otro formato (los anteriores a este generador) se ignoran.
+     */
+    void continuarDesde(String ultimoCodigo) {
+        int separador = ultimoCodigo.lastIndexOf('-');
+        try {
+            long ultimo = Long.parseLong(ultimoCodigo.substring(separador + 1));
+            ultimoValor.accumulateAndGet(ultimo, Math::max);
+            log.info("Generador de códigos continúa desde {}", ultimo);
+        } catch (NumberFormatException e) {
+            log.warn("No se pudo leer el sufijo del último código de transacción {}", ultimoCodigo);
+        }
+    }
+
+    long siguienteValor() {
+        long minimo = reloj.getAsLong() * SECUENCIAS_POR_MILISEGUNDO;
+        return ultimoValor.accumulateAndGet(minimo, (anterior, base) -> Math.max(anterior + 1, base));
+    }
+}
@@ -0,0 +1,71 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.service.TiemposEtapas.Etapa;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publica en Micrometer la duración de cada etapa del pago y la del procesamiento completo,
+ * etiquetadas por marca y resultado, con histogramas para calcular percentiles en Prometheus.
+ */
+@Component
+public class MetricasTransaccion {
+
+    static final String METRICA_ETAPA = "pos.transaccion.etapa";
+    static final String METRICA_PROCESAMIENTO = "pos.transaccion.procesamiento";
+
+    static final String RESULTADO_ERROR = "ERROR";
+    private static final String MARCA_DESCONOCIDA = "OTRA";
+
+    private final MeterRegistry meterRegistry;
+
+    public MetricasTransaccion(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    void registrar(TiemposEtapas tiempos, String marca, String resultado) {
+        registrarEtapas(tiempos, marca, resultado);
+        Timer.builder(METRICA_PROCESAMIENTO)
+                .description("Duración total del procesamiento de un pago")
+                .tag("marca", etiquetaMarca(marca))
+                .tag("resultado", etiquetaResultado(resultado))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(tiempos.totalNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Solo las etapas, sin contar un procesamiento: para tramos que no terminan el pago,
+     * como el registro previo al envío asíncrono.
+     */
+    void registrarEtapas(TiemposEtapas tiempos, String marca, String resultado) {
+        String etiquetaMarca = etiquetaMarca(marca);
+        String etiquetaResultado = etiquetaResultado(resultado);
+
+        for (Etapa etapa : Etapa.values()) {
+            if (tiempos.fueMedida(etapa)) {
+                Timer.builder(METRICA_ETAPA)
+                        .description("Duración de cada etapa del procesamiento de un pago")
+                        .tag("etapa", etapa.getNombre())
+                        .tag("marca", etiquetaMarca)
+                        .tag("resultado", etiquetaResultado)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(tiempos.duracionNanos(etapa), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private static String etiquetaMarca(String marca) {
+        return marca != null && TransaccionService.MARCAS_VALIDAS.contains(marca) ? marca : MARCA_DESCONOCIDA;
+    }
+
+    private static String etiquetaResultado(String resultado) {
+        return resultado != null ? resultado : RESULTADO_ERROR;
+    }
+}
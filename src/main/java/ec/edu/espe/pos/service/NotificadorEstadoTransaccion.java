@@ -0,0 +1,147 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.controller.dto.EstadoTransaccionDTO;
+import ec.edu.espe.pos.controller.dto.TransaccionRespuestaDTO;
+import ec.edu.espe.pos.repository.TransaccionRepository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Suscripciones SSE al estado de una transacción.
+ * <p>
+ * Cada terminal en espera es solo un {@link SseEmitter} registrado por código único: no
+ * ocupa un hilo ni consulta la base. Cuando el servicio cambia el estado se notifica a los
+ * suscriptores y, si el estado es final, se cierra el flujo. Los estados finales recientes
+ * se conservan en memoria para responder de inmediato a quien se suscribe tarde; si ya no
+ * están, se hace una sola consulta de la proyección de estado antes de registrar al emisor.
+ */
+@Component
+public class NotificadorEstadoTransaccion {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificadorEstadoTransaccion.class);
+    private static final String EVENTO_ESTADO = "estado";
+    private static final Set<String> ESTADOS_FINALES = Set.of(
+            TransaccionService.ESTADO_AUTORIZADO, TransaccionService.ESTADO_RECHAZADO,
+            TransaccionService.ESTADO_REVERSADO, TransaccionService.ESTADO_ANULADO);
+
+    private final TransaccionRepository transaccionRepository;
+    private final Map<String, List<SseEmitter>> suscripciones = new ConcurrentHashMap<>();
+    private final Cache<String, String> estadosFinales;
+    private final long tiempoEsperaMillis;
+
+    public NotificadorEstadoTransaccion(TransaccionRepository transaccionRepository,
+            @Value("${pos.notificacion.tiempo-espera:2m}") Duration tiempoEspera,
+            @Value("${pos.notificacion.retencion-estados:10m}") Duration retencionEstados,
+            @Value("${pos.notificacion.max-estados:10000}") long maxEstados) {
+        this.transaccionRepository = transaccionRepository;
+        this.tiempoEsperaMillis = tiempoEspera.toMillis();
+        this.estadosFinales = Caffeine.newBuilder()
+                .maximumSize(maxEstados)
+                .expireAfterWrite(retencionEstados)
+                .build();
+    }
+
+    public SseEmitter suscribir(String codigoUnicoTransaccion) {
+        SseEmitter emitter = new SseEmitter(tiempoEsperaMillis);
+        if (responderSiFinal(codigoUnicoTransaccion, emitter)
+                || responderSiFinalEnBase(codigoUnicoTransaccion, emitter)) {
+            return emitter;
+        }
+
+        List<SseEmitter> emisores = suscripciones.computeIfAbsent(codigoUnicoTransaccion,
+                codigo -> new CopyOnWriteArrayList<>());
+        emisores.add(emitter);
+        Runnable quitar = () -> quitar(codigoUnicoTransaccion, emitter);
+        emitter.onCompletion(quitar);
+        emitter.onTimeout(quitar);
+        emitter.onError(error -> quitar.run());
+
+        // El estado pudo volverse final entre la consulta inicial y el registro; si publicar()
+        // ya se llevó la lista, él mismo notifica a este emisor.
+        if (estadosFinales.getIfPresent(codigoUnicoTransaccion) != null
+                && quitar(codigoUnicoTransaccion, emitter)) {
+            responderSiFinal(codigoUnicoTransaccion, emitter);
+        }
+        return emitter;
+    }
+
+    public void publicar(String codigoUnicoTransaccion, String estado) {
+        boolean esFinal = ESTADOS_FINALES.contains(estado);
+        if (esFinal) {
+            estadosFinales.put(codigoUnicoTransaccion, estado);
+        }
+        List<SseEmitter> emisores = esFinal
+                ? suscripciones.remove(codigoUnicoTransaccion)
+                : suscripciones.get(codigoUnicoTransaccion);
+        if (emisores == null) {
+            return;
+        }
+        for (SseEmitter emitter : emisores) {
+            enviar(emitter, codigoUnicoTransaccion, estado, esFinal);
+        }
+    }
+
+    private boolean responderSiFinal(String codigoUnicoTransaccion, SseEmitter emitter) {
+        String estado = estadosFinales.getIfPresent(codigoUnicoTransaccion);
+        if (estado == null) {
+            return false;
+        }
+        enviar(emitter, codigoUnicoTransaccion, estado, true);
+        return true;
+    }
+
+    private boolean responderSiFinalEnBase(String codigoUnicoTransaccion, SseEmitter emitter) {
+        String estado = transaccionRepository.consultarEstado(codigoUnicoTransaccion)
+                .map(EstadoTransaccionDTO::getEstado)
+                .filter(ESTADOS_FINALES::contains)
+                .orElse(null);
+        if (estado == null) {
+            return false;
+        }
+        estadosFinales.put(codigoUnicoTransaccion, estado);
+        enviar(emitter, codigoUnicoTransaccion, estado, true);
+        return true;
+    }
+
+    private void enviar(SseEmitter emitter, String codigoUnicoTransaccion, String estado, boolean cerrar) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(EVENTO_ESTADO)
+                    .data(TransaccionRespuestaDTO.builder()
+                            .mensaje("Estado de la transacción")
+                            .codigoUnicoTransaccion(codigoUnicoTransaccion)
+                            .estado(estado)
+                            .build()));
+            if (cerrar) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("No se pudo notificar el estado de {}: {}", codigoUnicoTransaccion, e.getMessage());
+            emitter.completeWithError(e);
+        }
+    }
+
+    private boolean quitar(String codigoUnicoTransaccion, SseEmitter emitter) {
+        boolean[] quitado = { false };
+        suscripciones.computeIfPresent(codigoUnicoTransaccion, (codigo, emisores) -> {
+            quitado[0] = emisores.remove(emitter);
+            return emisores.isEmpty() ? null : emisores;
+        });
+        return quitado[0];
+    }
+}
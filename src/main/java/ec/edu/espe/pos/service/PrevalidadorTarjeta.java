@@ -0,0 +1,195 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.controller.dto.ValidacionTarjetaDTO;
+import ec.edu.espe.pos.exception.TarjetaInvalidaException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Validación local de la tarjeta, previa a la llamada al servicio remoto: formato,
+ * caducidad contra el reloj, dígito de Luhn y marca según el BIN.
+ * <p>
+ * La tabla de BINs se carga una vez en tres arreglos paralelos ordenados por inicio de
+ * rango ({@code int[]} de inicios y fines, {@code byte[]} con el índice de la marca) y se
+ * consulta con búsqueda binaria, sin objetos por entrada. El dígito de Luhn solo se
+ * comprueba cuando llega el número completo (12 dígitos o más); un BIN de 6 dígitos no lo
+ * tiene.
+ */
+@Component
+public class PrevalidadorTarjeta {
+
+    private static final Logger log = LoggerFactory.getLogger(PrevalidadorTarjeta.class);
+
+    private static final int DIGITOS_BIN = 6;
+    private static final int DIGITOS_MAXIMOS = 19;
+    private static final int DIGITOS_MINIMOS_LUHN = 12;
+
+    private final int[] iniciosBin;
+    private final int[] finesBin;
+    private final byte[] marcasBin;
+    private final String[] marcas;
+    private final Clock reloj;
+
+    @Autowired
+    public PrevalidadorTarjeta(@Value("${pos.tarjeta.tabla-bines:classpath:bines.csv}") Resource tablaBines) {
+        this(tablaBines, Clock.systemDefaultZone());
+    }
+
+    PrevalidadorTarjeta(Resource tablaBines, Clock reloj) {
+        this.reloj = reloj;
+
+        List<RangoBin> rangos = leerRangos(tablaBines);
+        rangos.sort(Comparator.comparingInt(RangoBin::inicio));
+        List<String> nombresMarcas = new ArrayList<>();
+        iniciosBin = new int[rangos.size()];
+        finesBin = new int[rangos.size()];
+        marcasBin = new byte[rangos.size()];
+        for (int i = 0; i < rangos.size(); i++) {
+            RangoBin rango = rangos.get(i);
+            if (i > 0 && rango.inicio() <= finesBin[i - 1]) {
+                throw new IllegalStateException("Rangos de BIN solapados en " + rango.inicio());
+            }
+            int marca = nombresMarcas.indexOf(rango.marca());
+            if (marca < 0) {
+                marca = nombresMarcas.size();
+                nombresMarcas.add(rango.marca());
+            }
+            iniciosBin[i] = rango.inicio();
+            finesBin[i] = rango.fin();
+            marcasBin[i] = (byte) marca;
+        }
+        marcas = nombresMarcas.toArray(String[]::new);
+        log.info("Tabla de BINs cargada: {} rangos, marcas {}", iniciosBin.length, Arrays.toString(marcas));
+    }
+
+    /**
+     * Lanza {@link TarjetaInvalidaException} si la tarjeta no puede ser válida o si su BIN
+     * no corresponde a la marca declarada en la transacción.
+     */
+    public void prevalidar(ValidacionTarjetaDTO tarjeta, String marcaDeclarada) {
+        String numero = tarjeta.getNumero();
+        if (!soloDigitos(numero, DIGITOS_BIN, DIGITOS_MAXIMOS)) {
+            throw new TarjetaInvalidaException("Número de tarjeta con formato inválido");
+        }
+        if (!soloDigitos(tarjeta.getCvv(), 3, 4)) {
+            throw new TarjetaInvalidaException("CVV con formato inválido");
+        }
+        if (!vigente(tarjeta.getFechaCaducidad())) {
+            throw new TarjetaInvalidaException("Tarjeta caducada o fecha de caducidad inválida");
+        }
+        if (numero.length() >= DIGITOS_MINIMOS_LUHN && !luhnValido(numero)) {
+            throw new TarjetaInvalidaException("Número de tarjeta inválido");
+        }
+        String marca = marcaDelBin(numero);
+        if (marca == null) {
+            throw new TarjetaInvalidaException("BIN de tarjeta no reconocido");
+        }
+        if (marcaDeclarada != null && !marca.equals(marcaDeclarada)) {
+            throw new TarjetaInvalidaException("La tarjeta no corresponde a la marca " + marcaDeclarada);
+        }
+    }
+
+    /**
+     * Marca asociada a los primeros 6 dígitos del número, o {@code null} si ningún rango los
+     * contiene.
+     */
+    String marcaDelBin(String numero) {
+        int bin = Integer.parseInt(numero, 0, DIGITOS_BIN, 10);
+        int posicion = Arrays.binarySearch(iniciosBin, bin);
+        if (posicion < 0) {
+            posicion = -posicion - 2;
+        }
+        if (posicion < 0 || bin > finesBin[posicion]) {
+            return null;
+        }
+        return marcas[marcasBin[posicion]];
+    }
+
+    static boolean luhnValido(String numero) {
+        int suma = 0;
+        boolean duplicar = false;
+        for (int i = numero.length() - 1; i >= 0; i--) {
+            int digito = numero.charAt(i) - '0';
+            if (duplicar) {
+                digito *= 2;
+                if (digito > 9) {
+                    digito -= 9;
+                }
+            }
+            suma += digito;
+            duplicar = !duplicar;
+        }
+        return suma % 10 == 0;
+    }
+
+    private boolean vigente(String fechaCaducidad) {
+        if (fechaCaducidad == null || fechaCaducidad.length() != 5 || fechaCaducidad.charAt(2) != '/'
+                || !soloDigitos(fechaCaducidad.substring(0, 2), 2, 2)
+                || !soloDigitos(fechaCaducidad.substring(3), 2, 2)) {
+            return false;
+        }
+        int mes = Integer.parseInt(fechaCaducidad, 0, 2, 10);
+        int anio = 2000 + Integer.parseInt(fechaCaducidad, 3, 5, 10);
+        return mes >= 1 && mes <= 12 && !YearMonth.of(anio, mes).isBefore(YearMonth.now(reloj));
+    }
+
+    private static boolean soloDigitos(String valor, int minimo, int maximo) {
+        if (valor == null || valor.length() < minimo || valor.length() > maximo) {
+            return false;
+        }
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<RangoBin> leerRangos(Resource tablaBines) {
+        List<RangoBin> rangos = new ArrayList<>();
+        try (BufferedReader lector = new BufferedReader(
+                new InputStreamReader(tablaBines.getInputStream(), StandardCharsets.UTF_8))) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                linea = linea.strip();
+                if (linea.isEmpty() || linea.startsWith("#")) {
+                    continue;
+                }
+                String[] campos = linea.split(",");
+                if (campos.length != 3) {
+                    throw new IllegalStateException("Línea inválida en la tabla de BINs: " + linea);
+                }
+                int inicio = Integer.parseInt(campos[0].strip());
+                int fin = Integer.parseInt(campos[1].strip());
+                if (fin < inicio) {
+                    throw new IllegalStateException("Rango de BIN invertido: " + linea);
+                }
+                rangos.add(new RangoBin(inicio, fin, campos[2].strip()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer la tabla de BINs", e);
+        }
+        return rangos;
+    }
+
+    private record RangoBin(int inicio, int fin, String marca) {
+    }
+}
@@ -0,0 +1,155 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.exception.ServicioSaturadoException;
+import ec.edu.espe.pos.model.Transaccion;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Procesa las transacciones contra el gateway fuera del hilo HTTP.
+ * La transacción se persiste en estado ENV y se encola; un grupo fijo de hilos
+ * virtuales consume la cola. Cuando la cola está llena se rechaza la petición
+ * en lugar de acumular trabajo sin límite.
+ * <p>
+ * Al detenerse deja de aceptar tareas y espera hasta {@code pos.async.espera-cierre} a que
+ * los trabajadores vacíen la cola; lo que quede sin despachar se valida y pasa a la bandeja
+ * de salida para enviarse al gateway en el próximo arranque.
+ */
+@Service
+public class ProcesamientoAsincronoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcesamientoAsincronoService.class);
+    private static final String RECURSO = "cola de procesamiento asíncrono";
+
+    private final TransaccionService transaccionService;
+    private final BlockingQueue<TareaPendiente> cola;
+    private final Semaphore permisos;
+    private final int trabajadores;
+    private final Duration esperaCierre;
+    private final List<Thread> hilos = new ArrayList<>();
+
+    private volatile boolean activo = true;
+
+    public ProcesamientoAsincronoService(TransaccionService transaccionService,
+            @Value("${pos.async.capacidad-cola:1000}") int capacidadCola,
+            @Value("${pos.async.trabajadores:32}") int trabajadores,
+            @Value("${pos.async.espera-cierre:20s}") Duration esperaCierre) {
+        this.transaccionService = transaccionService;
+        this.cola = new ArrayBlockingQueue<>(capacidadCola);
+        this.permisos = new Semaphore(capacidadCola);
+        this.trabajadores = trabajadores;
+        this.esperaCierre = esperaCierre;
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        Thread.Builder builder = Thread.ofVirtual().name("pos-gateway-", 0);
+        for (int i = 0; i < trabajadores; i++) {
+            hilos.add(builder.start(this::consumir));
+        }
+        log.info("Procesamiento asíncrono iniciado con {} trabajadores", trabajadores);
+    }
+
+    @PreDestroy
+    public void detener() {
+        activo = false;
+        long limite = System.nanoTime() + esperaCierre.toNanos();
+        try {
+            for (Thread hilo : hilos) {
+                long restante = limite - System.nanoTime();
+                if (restante <= 0 || !hilo.join(Duration.ofNanos(restante))) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<TareaPendiente> sinDespachar = new ArrayList<>();
+        cola.drainTo(sinDespachar);
+        hilos.forEach(Thread::interrupt);
+        sinDespachar.forEach(this::diferir);
+        log.info("Procesamiento asíncrono detenido. Tareas sin despachar pasadas a la bandeja de salida: {}",
+                sinDespachar.size());
+    }
+
+    public Transaccion encolar(Transaccion transaccion, String datosSensibles,
+            Boolean interesDiferido, Integer cuotas) {
+        if (!activo || !permisos.tryAcquire()) {
+            log.warn("Cola de procesamiento asíncrono llena, se rechaza la transacción");
+            throw new ServicioSaturadoException(RECURSO);
+        }
+        try {
+            Transaccion pendiente = transaccionService.registrarPendiente(transaccion);
+            TareaPendiente tarea = new TareaPendiente(pendiente, datosSensibles, interesDiferido, cuotas);
+            cola.add(tarea);
+            // Si se detuvo mientras se registraba, detener() pudo vaciar la cola antes
+            if (!activo && cola.remove(tarea)) {
+                diferir(tarea);
+            }
+            return pendiente;
+        } catch (RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    private void consumir() {
+        while (true) {
+            TareaPendiente tarea;
+            try {
+                tarea = cola.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (tarea == null) {
+                if (!activo) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                transaccionService.completarPendiente(tarea.transaccion(), tarea.datosSensibles(),
+                        tarea.interesDiferido(), tarea.cuotas());
+            } catch (Exception e) {
+                log.error("Error al procesar transacción {} de forma asíncrona: {}",
+                        tarea.transaccion().getCodigoUnicoTransaccion(), e.getMessage());
+            } finally {
+                permisos.release();
+            }
+        }
+    }
+
+    private void diferir(TareaPendiente tarea) {
+        String codigo = tarea.transaccion().getCodigoUnicoTransaccion();
+        try {
+            if (!transaccionService.diferirPendiente(tarea.transaccion(), tarea.datosSensibles(),
+                    tarea.interesDiferido(), tarea.cuotas())) {
+                log.error("Transacción {} sin despachar queda en ENV: bandeja de salida llena", codigo);
+            }
+        } catch (RuntimeException e) {
+            log.error("Transacción {} sin despachar queda en ENV: {}", codigo, e.getMessage());
+        } finally {
+            permisos.release();
+        }
+    }
+
+    private record TareaPendiente(Transaccion transaccion, String datosSensibles,
+            Boolean interesDiferido, Integer cuotas) {
+    }
+}
@@ -0,0 +1,147 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.controller.dto.GatewayTransaccionDTO;
+import ec.edu.espe.pos.controller.dto.TransaccionRespuestaDTO;
+import ec.edu.espe.pos.exception.InvalidDataException;
+import ec.edu.espe.pos.model.Monto;
+import ec.edu.espe.pos.model.Transaccion;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * Procesa lotes de pagos (ventas fuera de línea que el comercio reenvía).
+ * <p>
+ * Valida cada elemento con las mismas reglas que el pago individual (un elemento inválido
+ * o nulo solo marca su propio resultado como error), registra las transacciones válidas con una sola escritura y
+ * luego envía cada una al gateway con un máximo de {@code pos.lote.paralelismo} llamadas
+ * simultáneas. Devuelve un resultado por elemento en el mismo orden de entrada, cada uno
+ * disponible en cuanto termina.
+ */
+@Service
+public class ProcesamientoLoteService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcesamientoLoteService.class);
+    private static final String ESTADO_ERROR = "ERROR";
+
+    private final TransaccionService transaccionService;
+    private final ExecutorService ejecutorVirtual;
+    private final Validator validator;
+    private final Semaphore llamadasGateway;
+    private final int tamanoMaximo;
+
+    public ProcesamientoLoteService(TransaccionService transaccionService,
+            ExecutorService ejecutorVirtual,
+            Validator validator,
+            @Value("${pos.lote.paralelismo:8}") int paralelismo,
+            @Value("${pos.lote.tamano-maximo:500}") int tamanoMaximo) {
+        this.transaccionService = transaccionService;
+        this.ejecutorVirtual = ejecutorVirtual;
+        this.validator = validator;
+        this.llamadasGateway = new Semaphore(paralelismo);
+        this.tamanoMaximo = tamanoMaximo;
+    }
+
+    public List<CompletableFuture<TransaccionRespuestaDTO>> procesar(List<GatewayTransaccionDTO> solicitudes) {
+        if (solicitudes == null || solicitudes.isEmpty()) {
+            throw new InvalidDataException("El lote no contiene transacciones");
+        }
+        if (solicitudes.size() > tamanoMaximo) {
+            throw new InvalidDataException("El lote excede el máximo de " + tamanoMaximo + " transacciones");
+        }
+        log.info("Procesando lote de {} transacciones", solicitudes.size());
+
+        List<CompletableFuture<TransaccionRespuestaDTO>> resultados = new ArrayList<>(solicitudes.size());
+        List<Transaccion> validas = new ArrayList<>(solicitudes.size());
+        List<Integer> posiciones = new ArrayList<>(solicitudes.size());
+
+        for (int i = 0; i < solicitudes.size(); i++) {
+            GatewayTransaccionDTO solicitud = solicitudes.get(i);
+            try {
+                validar(solicitud);
+                Transaccion transaccion = new Transaccion();
+                transaccion.setMonto(Monto.de(solicitud.getMonto()));
+                transaccion.setMarca(solicitud.getMarca());
+                transaccionService.validarDatosIniciales(transaccion);
+                validas.add(transaccion);
+                posiciones.add(i);
+                resultados.add(null);
+            } catch (InvalidDataException | IllegalArgumentException e) {
+                resultados.add(CompletableFuture.completedFuture(error(e.getMessage())));
+            }
+        }
+        if (validas.isEmpty()) {
+            return resultados;
+        }
+
+        List<Transaccion> registradas = transaccionService.registrarPendientes(validas);
+        for (int j = 0; j < registradas.size(); j++) {
+            Transaccion registrada = registradas.get(j);
+            GatewayTransaccionDTO solicitud = solicitudes.get(posiciones.get(j));
+            resultados.set(posiciones.get(j), CompletableFuture.supplyAsync(
+                    () -> completar(registrada, solicitud), ejecutorVirtual));
+        }
+        return resultados;
+    }
+
+    private void validar(GatewayTransaccionDTO solicitud) {
+        if (solicitud == null) {
+            throw new InvalidDataException("La transacción del lote está vacía");
+        }
+        Set<ConstraintViolation<GatewayTransaccionDTO>> violaciones = validator.validate(solicitud);
+        if (!violaciones.isEmpty()) {
+            throw new InvalidDataException(violaciones.stream()
+                    .map(violacion -> violacion.getPropertyPath() + ": " + violacion.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+    }
+
+    private TransaccionRespuestaDTO completar(Transaccion transaccion, GatewayTransaccionDTO solicitud) {
+        try {
+            llamadasGateway.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return error("Procesamiento interrumpido");
+        }
+        try {
+            Transaccion procesada = transaccionService.completarPendiente(transaccion,
+                    solicitud.getDatosTarjeta(), solicitud.getInteresDiferido(), solicitud.getCuotas());
+            return TransaccionRespuestaDTO.builder()
+                    .mensaje("Transacción procesada exitosamente")
+                    .estado(procesada.getEstado())
+                    .codigoUnicoTransaccion(procesada.getCodigoUnicoTransaccion())
+                    .build();
+        } catch (Exception e) {
+            log.error("Error al procesar transacción {} del lote: {}",
+                    transaccion.getCodigoUnicoTransaccion(), e.getMessage());
+            return TransaccionRespuestaDTO.builder()
+                    .mensaje("Error interno del servidor")
+                    .estado(ESTADO_ERROR)
+                    .codigoUnicoTransaccion(transaccion.getCodigoUnicoTransaccion())
+                    .build();
+        } finally {
+            llamadasGateway.release();
+        }
+    }
+
+    private static TransaccionRespuestaDTO error(String mensaje) {
+        return TransaccionRespuestaDTO.builder()
+                .mensaje(mensaje)
+                .estado(ESTADO_ERROR)
+                .build();
+    }
+}
@@ -0,0 +1,224 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.client.GatewayTransaccionClient;
+import ec.edu.espe.pos.controller.dto.ActualizacionEstadoDTO;
+import ec.edu.espe.pos.repository.TransaccionRepository;
+import ec.edu.espe.pos.repository.TransaccionRepository.Pendiente;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Revisa periódicamente las transacciones que siguen en ENV más allá de
+ * {@code pos.reconciliacion.antiguedad-minima}, por ejemplo porque el gateway respondió 202
+ * y nunca llegó el callback.
+ * <p>
+ * Recorre la tabla por páginas con un cursor sobre la clave primaria (no con OFFSET), de
+ * modo que cada página cuesta lo mismo sin importar cuántas filas haya detrás. Cada página
+ * se consulta al gateway en lotes, con un máximo de consultas simultáneas, y los estados
+ * finales se aplican con la actualización en lote del servicio.
+ * <p>
+ * El cursor se conserva entre ejecuciones: cada una sigue donde terminó la anterior y, al
+ * llegar al final de la tabla, vuelve al principio, de modo que con más pendientes que
+ * {@code pos.reconciliacion.maximo-por-ejecucion} todas se revisan por turnos. Una
+ * transacción por la que el gateway responde sin estado final
+ * {@code pos.reconciliacion.maximo-sin-respuesta} veces seguidas pasa a REC. Las consultas
+ * que fallan no cuentan: una caída del gateway no rechaza transacciones.
+ */
+@Component
+public class ReconciliadorTransacciones {
+
+    private static final Logger log = LoggerFactory.getLogger(ReconciliadorTransacciones.class);
+
+    private final TransaccionRepository transaccionRepository;
+    private final GatewayTransaccionClient gatewayClient;
+    private final TransaccionService transaccionService;
+    private final ExecutorService ejecutorVirtual;
+    private final ObjectMapper objectMapper;
+    private final Duration antiguedadMinima;
+    private final int tamanoPagina;
+    private final int tamanoConsulta;
+    private final int maximoPorEjecucion;
+    private final int maximoSinRespuesta;
+    private final Semaphore consultasGateway;
+    private final Cache<String, Integer> consultasSinRespuesta;
+    private final Counter consultasFallidas;
+
+    private int cursor;
+
+    public ReconciliadorTransacciones(TransaccionRepository transaccionRepository,
+            GatewayTransaccionClient gatewayClient,
+            TransaccionService transaccionService,
+            ExecutorService ejecutorVirtual,
+            ObjectMapper objectMapper,
+            MeterRegistry registry,
+            @Value("${pos.reconciliacion.antiguedad-minima:10m}") Duration antiguedadMinima,
+            @Value("${pos.reconciliacion.tamano-pagina:500}") int tamanoPagina,
+            @Value("${pos.reconciliacion.tamano-consulta:50}") int tamanoConsulta,
+            @Value("${pos.reconciliacion.paralelismo:4}") int paralelismo,
+            @Value("${pos.reconciliacion.maximo-por-ejecucion:5000}") int maximoPorEjecucion,
+            @Value("${pos.reconciliacion.maximo-sin-respuesta:12}") int maximoSinRespuesta) {
+        this.transaccionRepository = transaccionRepository;
+        this.gatewayClient = gatewayClient;
+        this.transaccionService = transaccionService;
+        this.ejecutorVirtual = ejecutorVirtual;
+        this.objectMapper = objectMapper;
+        this.antiguedadMinima = antiguedadMinima;
+        this.tamanoPagina = tamanoPagina;
+        this.tamanoConsulta = tamanoConsulta;
+        this.maximoPorEjecucion = maximoPorEjecucion;
+        this.maximoSinRespuesta = maximoSinRespuesta;
+        this.consultasGateway = new Semaphore(paralelismo);
+        // Las que se resuelven por callback no vuelven a consultarse: su cuenta expira sola
+        this.consultasSinRespuesta = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofDays(1))
+                .build();
+        this.consultasFallidas = Counter.builder("pos.reconciliacion.consultas-fallidas")
+                .description("Consultas de estados al gateway que fallaron o no devolvieron estados")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${pos.reconciliacion.intervalo:5m}",
+            initialDelayString = "${pos.reconciliacion.intervalo:5m}")
+    public void reconciliar() {
+        LocalDateTime anteriorA = LocalDateTime.now().minus(antiguedadMinima);
+        int inicio = cursor;
+        boolean reiniciado = false;
+        int revisadas = 0;
+        int actualizadas = 0;
+
+        while (revisadas < maximoPorEjecucion) {
+            List<Pendiente> pagina = transaccionRepository.buscarPendientes(TransaccionService.ESTADO_ENVIADO,
+                    anteriorA, cursor, Limit.of(Math.min(tamanoPagina, maximoPorEjecucion - revisadas)));
+            if (reiniciado) {
+                // Tras volver al principio solo faltan las anteriores al punto de partida
+                pagina = pagina.stream().filter(pendiente -> pendiente.getCodigo() <= inicio).toList();
+            }
+            if (pagina.isEmpty()) {
+                if (reiniciado || inicio == 0) {
+                    break;
+                }
+                cursor = 0;
+                reiniciado = true;
+                continue;
+            }
+            cursor = pagina.get(pagina.size() - 1).getCodigo();
+            revisadas += pagina.size();
+            actualizadas += reconciliarPagina(pagina);
+        }
+
+        if (revisadas > 0) {
+            log.info("Reconciliación completada: {} transacciones en ENV revisadas, {} actualizadas",
+                    revisadas, actualizadas);
+        }
+    }
+
+    private int reconciliarPagina(List<Pendiente> pagina) {
+        List<List<String>> lotes = new ArrayList<>();
+        List<CompletableFuture<List<ActualizacionEstadoDTO>>> consultas = new ArrayList<>();
+        for (int inicio = 0; inicio < pagina.size(); inicio += tamanoConsulta) {
+            List<String> codigos = pagina.subList(inicio, Math.min(inicio + tamanoConsulta, pagina.size()))
+                    .stream()
+                    .map(Pendiente::getCodigoUnicoTransaccion)
+                    .toList();
+            lotes.add(codigos);
+            consultas.add(CompletableFuture.supplyAsync(() -> consultar(codigos), ejecutorVirtual));
+        }
+
+        List<ActualizacionEstadoDTO> finales = new ArrayList<>();
+        for (int i = 0; i < consultas.size(); i++) {
+            List<ActualizacionEstadoDTO> estados = consultas.get(i).join();
+            if (estados == null) {
+                continue;
+            }
+            Set<String> resueltas = new HashSet<>();
+            for (ActualizacionEstadoDTO estado : estados) {
+                if (TransaccionService.ESTADO_AUTORIZADO.equals(estado.getEstado())
+                        || TransaccionService.ESTADO_RECHAZADO.equals(estado.getEstado())) {
+                    finales.add(estado);
+                    resueltas.add(estado.getCodigoUnicoTransaccion());
+                }
+            }
+            for (String codigo : lotes.get(i)) {
+                if (resueltas.contains(codigo)) {
+                    consultasSinRespuesta.invalidate(codigo);
+                } else if (contarSinRespuesta(codigo) >= maximoSinRespuesta) {
+                    finales.add(rechazoSinRespuesta(codigo));
+                }
+            }
+        }
+        if (finales.isEmpty()) {
+            return 0;
+        }
+        return (int) transaccionService.actualizarEstadosTransacciones(finales).stream()
+                .filter(resultado -> TransaccionService.RESULTADO_ACTUALIZADA.equals(resultado.getResultado()))
+                .count();
+    }
+
+    private int contarSinRespuesta(String codigo) {
+        return consultasSinRespuesta.asMap().merge(codigo, 1, Integer::sum);
+    }
+
+    private ActualizacionEstadoDTO rechazoSinRespuesta(String codigo) {
+        consultasSinRespuesta.invalidate(codigo);
+        log.warn("Transacción {} sin estado final en el gateway tras {} consultas, se marca como {}",
+                codigo, maximoSinRespuesta, TransaccionService.ESTADO_RECHAZADO);
+        ActualizacionEstadoDTO rechazo = new ActualizacionEstadoDTO();
+        rechazo.setCodigoUnicoTransaccion(codigo);
+        rechazo.setEstado(TransaccionService.ESTADO_RECHAZADO);
+        rechazo.setMensaje("Sin estado final en el gateway tras " + maximoSinRespuesta + " consultas");
+        return rechazo;
+    }
+
+    /**
+     * Estados que el gateway devolvió para los códigos, o {@code null} si la consulta falló.
+     */
+    private List<ActualizacionEstadoDTO> consultar(List<String> codigos) {
+        try {
+            consultasGateway.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        try {
+            ResponseEntity<String> respuesta = gatewayClient.consultarEstados(codigos);
+            if (!respuesta.getStatusCode().is2xxSuccessful() || respuesta.getBody() == null) {
+                consultasFallidas.increment();
+                log.error("El gateway no devolvió estados para {} transacciones: {}",
+                        codigos.size(), respuesta.getStatusCode());
+                return null;
+            }
+            return Arrays.asList(objectMapper.readValue(respuesta.getBody(), ActualizacionEstadoDTO[].class));
+        } catch (Exception e) {
+            // Un 404 aquí suele indicar que el gateway no expone POST /v1/transacciones/estados
+            consultasFallidas.increment();
+            log.error("Error al consultar estados en el gateway: {}", e.getMessage());
+            return null;
+        } finally {
+            consultasGateway.release();
+        }
+    }
+}
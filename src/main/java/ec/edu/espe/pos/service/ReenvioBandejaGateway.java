@@ -0,0 +1,74 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.controller.dto.GatewayTransaccionDTO;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Vacía la bandeja de salida en orden. Si el gateway sigue sin responder se deja de
+ * intentar durante un tiempo que se duplica en cada fallo, hasta {@code pos.outbox.espera-maxima}.
+ */
+@Component
+public class ReenvioBandejaGateway {
+
+    private static final Logger log = LoggerFactory.getLogger(ReenvioBandejaGateway.class);
+
+    private final BandejaSalidaGateway bandejaSalida;
+    private final TransaccionService transaccionService;
+    private final long esperaInicialNanos;
+    private final long esperaMaximaNanos;
+    private long esperaNanos;
+    private long proximoIntento;
+
+    public ReenvioBandejaGateway(BandejaSalidaGateway bandejaSalida,
+            TransaccionService transaccionService,
+            @Value("${pos.outbox.intervalo:1s}") Duration intervalo,
+            @Value("${pos.outbox.espera-maxima:1m}") Duration esperaMaxima) {
+        this.bandejaSalida = bandejaSalida;
+        this.transaccionService = transaccionService;
+        this.esperaInicialNanos = intervalo.toNanos();
+        this.esperaMaximaNanos = esperaMaxima.toNanos();
+        this.esperaNanos = esperaInicialNanos;
+        this.proximoIntento = System.nanoTime();
+    }
+
+    @Scheduled(fixedDelayString = "${pos.outbox.intervalo:1s}")
+    public void reenviar() {
+        if (!bandejaSalida.tienePendientes() || System.nanoTime() - proximoIntento < 0) {
+            return;
+        }
+
+        int reenviadas = 0;
+        Optional<BandejaSalidaGateway.Registro> registro;
+        while ((registro = bandejaSalida.primero()).isPresent()) {
+            GatewayTransaccionDTO transaccion;
+            try {
+                transaccion = bandejaSalida.leer(registro.get());
+            } catch (IllegalStateException e) {
+                log.error("Se descarta un registro ilegible de la bandeja de salida: {}", e.getMessage());
+                bandejaSalida.confirmar(registro.get());
+                continue;
+            }
+
+            if (!transaccionService.reenviarPendiente(transaccion)) {
+                proximoIntento = System.nanoTime() + esperaNanos;
+                log.warn("Reenvío suspendido por {} ms tras {} transacciones reenviadas",
+                        esperaNanos / 1_000_000, reenviadas);
+                esperaNanos = Math.min(esperaNanos * 2, esperaMaximaNanos);
+                return;
+            }
+            bandejaSalida.confirmar(registro.get());
+            reenviadas++;
+        }
+
+        esperaNanos = esperaInicialNanos;
+        log.info("Bandeja de salida vaciada: {} transacciones reenviadas", reenviadas);
+    }
+}
@@ -0,0 +1,89 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.controller.dto.ReporteLiquidacionDTO;
+import ec.edu.espe.pos.controller.dto.TotalLiquidacionDTO;
+import ec.edu.espe.pos.repository.TransaccionRepository;
+import ec.edu.espe.pos.repository.TransaccionRepository.TotalAgrupado;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cierre diario. La agregación la hace SQLite con un GROUP BY sobre el rango del día (que
+ * usa el índice por FECHA): solo llegan a memoria las pocas filas de totales, nunca las
+ * transacciones, así que el consumo no crece con el volumen del día. Los montos se suman
+ * en centavos enteros para no acumular error de redondeo.
+ */
+@Service
+public class ReporteService {
+
+    private static final String CABECERA_CSV = "fecha,marca,estado,tipo,cantidad,total\n";
+
+    private final TransaccionRepository transaccionRepository;
+
+    public ReporteService(TransaccionRepository transaccionRepository) {
+        this.transaccionRepository = transaccionRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public ReporteLiquidacionDTO liquidacion(LocalDate fecha) {
+        List<TotalLiquidacionDTO> totales = new ArrayList<>();
+        long cantidadTotal = 0;
+        long autorizadoCentavos = 0;
+        for (TotalAgrupado total : totalesDelDia(fecha)) {
+            long centavos = centavos(total);
+            totales.add(TotalLiquidacionDTO.builder()
+                    .marca(total.getMarca())
+                    .estado(total.getEstado())
+                    .tipo(total.getTipo())
+                    .cantidad(total.getCantidad())
+                    .total(BigDecimal.valueOf(centavos, 2))
+                    .build());
+            cantidadTotal += total.getCantidad();
+            if (TransaccionService.ESTADO_AUTORIZADO.equals(total.getEstado())) {
+                autorizadoCentavos += centavos;
+            }
+        }
+        return ReporteLiquidacionDTO.builder()
+                .fecha(fecha)
+                .totales(totales)
+                .cantidadTotal(cantidadTotal)
+                .montoAutorizado(BigDecimal.valueOf(autorizadoCentavos, 2))
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public void escribirLiquidacionCsv(LocalDate fecha, Writer salida) throws IOException {
+        salida.write(CABECERA_CSV);
+        for (TotalAgrupado total : totalesDelDia(fecha)) {
+            salida.append(fecha.toString()).append(',')
+                    .append(valor(total.getMarca())).append(',')
+                    .append(valor(total.getEstado())).append(',')
+                    .append(valor(total.getTipo())).append(',')
+                    .append(String.valueOf(total.getCantidad())).append(',')
+                    .append(BigDecimal.valueOf(centavos(total), 2).toPlainString())
+                    .append('\n');
+        }
+        salida.flush();
+    }
+
+    private List<TotalAgrupado> totalesDelDia(LocalDate fecha) {
+        return transaccionRepository.totalizarPorMarcaEstadoTipo(fecha.atStartOfDay(),
+                fecha.plusDays(1).atStartOfDay());
+    }
+
+    private static long centavos(TotalAgrupado total) {
+        return total.getTotalCentavos() != null ? total.getTotalCentavos() : 0L;
+    }
+
+    private static String valor(String campo) {
+        return campo != null ? campo : "";
+    }
+}
@@ -0,0 +1,84 @@
+package ec.edu.espe.pos.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Acumula la duración de cada etapa del procesamiento de una transacción.
+ * Las etapas pueden medirse desde hilos distintos (validación y facturación corren en paralelo).
+ */
+class TiemposEtapas {
+
+    enum Etapa {
+        VALIDACION_INICIAL("validacionInicial"),
+        VALIDACION_TARJETA("validacionTarjeta"),
+        CONFIGURACION("configuracion"),
+        FACTURACION("facturacion"),
+        GUARDADO_INICIAL("guardadoInicial"),
+        SINCRONIZACION_GATEWAY("sincronizacionGateway"),
+        GUARDADO_ESTADO("guardadoEstado");
+
+        private final String nombre;
+
+        Etapa(String nombre) {
+            this.nombre = nombre;
+        }
+
+        String getNombre() {
+            return nombre;
+        }
+    }
+
+    private final long inicio = System.nanoTime();
+    private final AtomicLongArray duraciones = new AtomicLongArray(Etapa.values().length);
+    private final AtomicIntegerArray mediciones = new AtomicIntegerArray(Etapa.values().length);
+
+    <T> T medir(Etapa etapa, Supplier<T> accion) {
+        long inicioEtapa = System.nanoTime();
+        try {
+            return accion.get();
+        } finally {
+            acumular(etapa, System.nanoTime() - inicioEtapa);
+        }
+    }
+
+    void ejecutar(Etapa etapa, Runnable accion) {
+        long inicioEtapa = System.nanoTime();
+        try {
+            accion.run();
+        } finally {
+            acumular(etapa, System.nanoTime() - inicioEtapa);
+        }
+    }
+
+    private void acumular(Etapa etapa, long nanos) {
+        duraciones.addAndGet(etapa.ordinal(), nanos);
+        mediciones.incrementAndGet(etapa.ordinal());
+    }
+
+    boolean fueMedida(Etapa etapa) {
+        return mediciones.get(etapa.ordinal()) > 0;
+    }
+
+    long duracionNanos(Etapa etapa) {
+        return duraciones.get(etapa.ordinal());
+    }
+
+    long totalNanos() {
+        return System.nanoTime() - inicio;
+    }
+
+    String resumen() {
+        StringBuilder resumen = new StringBuilder(128);
+        for (Etapa etapa : Etapa.values()) {
+            if (!fueMedida(etapa)) {
+                continue;
+            }
+            resumen.append(etapa.getNombre()).append('=')
+                    .append(TimeUnit.NANOSECONDS.toMillis(duracionNanos(etapa))).append("ms ");
+        }
+        return resumen.append("total=").append(TimeUnit.NANOSECONDS.toMillis(totalNanos())).append("ms").toString();
+    }
+}
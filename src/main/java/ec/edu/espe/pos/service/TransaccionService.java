@@ -1,34 +1,50 @@
 package ec.edu.espe.pos.service;
 
-import ec.edu.espe.pos.model.Configuracion;
 import ec.edu.espe.pos.model.Transaccion;
 import ec.edu.espe.pos.repository.TransaccionRepository;
+import ec.edu.espe.pos.repository.TransaccionRepository.EstadoActual;
+import ec.edu.espe.pos.repository.TransicionEstadoRepository.EstadoCambiado;
 import ec.edu.espe.pos.client.GatewayTransaccionClient;
-import ec.edu.espe.pos.client.ValidacionTarjetaClient;
 import ec.edu.espe.pos.controller.dto.ActualizacionEstadoDTO;
 import ec.edu.espe.pos.controller.dto.ComercioDTO;
+import ec.edu.espe.pos.controller.dto.EstadoTransaccionDTO;
 import ec.edu.espe.pos.controller.dto.FacturacionComercioDTO;
 import ec.edu.espe.pos.controller.dto.GatewayTransaccionDTO;
+import ec.edu.espe.pos.controller.dto.ResultadoActualizacionDTO;
 import ec.edu.espe.pos.controller.dto.ValidacionTarjetaDTO;
 import ec.edu.espe.pos.controller.mapper.TransaccionMapper;
-import ec.edu.espe.pos.client.GatewayComercioClient;
 import ec.edu.espe.pos.exception.NotFoundException;
 import ec.edu.espe.pos.exception.InvalidDataException;
+import ec.edu.espe.pos.exception.ServicioSaturadoException;
 import ec.edu.espe.pos.exception.TarjetaInvalidaException;
+import ec.edu.espe.pos.service.TiemposEtapas.Etapa;
+
+import feign.RetryableException;
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.Random;
-
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.JsonNode;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 @Service
 public class TransaccionService {
@@ -44,81 +60,261 @@ public class TransaccionService {
     public static final String ESTADO_ENVIADO = "ENV";
     public static final String ESTADO_AUTORIZADO = "AUT";
     public static final String ESTADO_RECHAZADO = "REC";
+    public static final String ESTADO_REVERSADO = "REV";
+    public static final String ESTADO_ANULADO = "ANU";
 
     public static final String ESTADO_RECIBO_IMPRESO = "IMP";
     public static final String ESTADO_RECIBO_PENDIENTE = "PEN";
 
     private static final Set<String> MONEDAS_VALIDAS = Set.of("USD", "EUR", "GBP");
 
-    private static final Set<String> MARCAS_VALIDAS = Set.of("MSCD", "VISA", "AMEX", "DINE");
+    static final Set<String> MARCAS_VALIDAS = Set.of("MSCD", "VISA", "AMEX", "DINE");
+
+    private static final Set<String> ESTADOS_CALLBACK = Set.of(ESTADO_AUTORIZADO, ESTADO_RECHAZADO);
+
+    /**
+     * Máquina de estados: estado de origen de cada estado destino permitido (ENV → AUT/REC,
+     * AUT → REV/ANU). Cada cambio se aplica con un UPDATE condicionado a este origen.
+     */
+    private static final Map<String, String> ORIGEN_POR_ESTADO = Map.of(
+            ESTADO_AUTORIZADO, ESTADO_ENVIADO,
+            ESTADO_RECHAZADO, ESTADO_ENVIADO,
+            ESTADO_REVERSADO, ESTADO_AUTORIZADO,
+            ESTADO_ANULADO, ESTADO_AUTORIZADO);
+
+    public static final String RESULTADO_ACTUALIZADA = "ACTUALIZADA";
+    public static final String RESULTADO_SIN_CAMBIOS = "SIN_CAMBIOS";
+    public static final String RESULTADO_NO_ENCONTRADA = "NO_ENCONTRADA";
+    public static final String RESULTADO_INVALIDA = "INVALIDA";
+    public static final String RESULTADO_REEMPLAZADA = "REEMPLAZADA";
+    public static final String RESULTADO_TRANSICION_INVALIDA = "TRANSICION_INVALIDA";
 
     private final TransaccionRepository transaccionRepository;
     private final GatewayTransaccionClient gatewayClient;
-    private final GatewayComercioClient comercioClient;
+    private final FacturacionComercioCache facturacionComercioCache;
     private final ConfiguracionService configuracionService;
-    private final ValidacionTarjetaClient validacionTarjetaClient;
+    private final ValidadorTarjeta validadorTarjeta;
+    private final ExecutorService ejecutorVirtual;
+    private final GeneradorCodigoTransaccion generadorCodigoTransaccion;
+    private final EscritorTransacciones escritorTransacciones;
+    private final MetricasTransaccion metricasTransaccion;
+    private final NotificadorEstadoTransaccion notificadorEstado;
+    private final BandejaSalidaGateway bandejaSalida;
+    private final ContadoresVentas contadoresVentas;
+    private final AuditoriaTransacciones auditoria;
 
     public TransaccionService(TransaccionRepository transaccionRepository,
             GatewayTransaccionClient gatewayClient,
-            GatewayComercioClient comercioClient,
+            FacturacionComercioCache facturacionComercioCache,
             ConfiguracionService configuracionService,
-            ValidacionTarjetaClient validacionTarjetaClient) {
+            ValidadorTarjeta validadorTarjeta,
+            ExecutorService ejecutorVirtual,
+            GeneradorCodigoTransaccion generadorCodigoTransaccion,
+            EscritorTransacciones escritorTransacciones,
+            MetricasTransaccion metricasTransaccion,
+            NotificadorEstadoTransaccion notificadorEstado,
+            BandejaSalidaGateway bandejaSalida,
+            ContadoresVentas contadoresVentas,
+            AuditoriaTransacciones auditoria) {
         this.transaccionRepository = transaccionRepository;
         this.gatewayClient = gatewayClient;
-        this.comercioClient = comercioClient;
+        this.facturacionComercioCache = facturacionComercioCache;
         this.configuracionService = configuracionService;
-        this.validacionTarjetaClient = validacionTarjetaClient;
+        this.validadorTarjeta = validadorTarjeta;
+        this.ejecutorVirtual = ejecutorVirtual;
+        this.generadorCodigoTransaccion = generadorCodigoTransaccion;
+        this.escritorTransacciones = escritorTransacciones;
+        this.metricasTransaccion = metricasTransaccion;
+        this.notificadorEstado = notificadorEstado;
+        this.bandejaSalida = bandejaSalida;
+        this.contadoresVentas = contadoresVentas;
+        this.auditoria = auditoria;
     }
 
-    private void validarTarjeta(String datosSensibles) {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode datosTarjeta = mapper.readTree(datosSensibles);
-
-            ValidacionTarjetaDTO validacionDTO = new ValidacionTarjetaDTO();
-            validacionDTO.setNumero(datosTarjeta.get("cardNumber").asText());
-            validacionDTO.setFechaCaducidad(datosTarjeta.get("expiryDate").asText());
-            validacionDTO.setCvv(datosTarjeta.get("cvv").asText());
-
-            ResponseEntity<Void> respuesta = validacionTarjetaClient.validarTarjeta(validacionDTO);
-            
-            if (respuesta.getStatusCode().value() == 404) {
-                log.error("Error en la validación de la tarjeta: datos inválidos");
-                throw new TarjetaInvalidaException("Datos de tarjeta inválidos");
-            }
-
-            log.info("Validación de tarjeta exitosa");
-        } catch (Exception e) {
-            log.error("Error al validar la tarjeta: {}", e.getMessage());
-            throw new TarjetaInvalidaException(e.getMessage());
-        }
+    private void validarTarjeta(String datosSensibles, Transaccion transaccion) {
+        ValidacionTarjetaDTO tarjeta = validadorTarjeta.validar(datosSensibles, transaccion.getMarca());
+        auditoria.registrar("TARJETA_VALIDADA", transaccion, tarjeta);
     }
 
-    private void validarDatosIniciales(Transaccion transaccion) {
+    void validarDatosIniciales(Transaccion transaccion) {
         if (transaccion.getMarca() == null || transaccion.getMarca().length() > 4
                 || !MARCAS_VALIDAS.contains(transaccion.getMarca())) {
             throw new IllegalArgumentException(
                     "Marca inválida. Debe ser una de: " + String.join(", ", MARCAS_VALIDAS));
         }
-        if (transaccion.getMonto() == null || transaccion.getMonto().compareTo(BigDecimal.ZERO) <= 0) {
+        if (transaccion.getMonto() == null || !transaccion.getMonto().esPositivo()) {
             throw new InvalidDataException("El monto debe ser mayor que cero");
         }
     }
 
-    @Transactional
     public Transaccion crear(Transaccion transaccion, String datosSensibles,
             Boolean interesDiferido, Integer cuotas) {
-        log.info("Iniciando creación de transacción. Datos recibidos: {}", transaccion);
+        log.debug("Iniciando creación de transacción de marca {}", transaccion.getMarca());
 
-        validarDatosIniciales(transaccion);
-        validarTarjeta(datosSensibles);
-        log.info("Validaciones completadas exitosamente");
+        TiemposEtapas tiempos = new TiemposEtapas();
+        return medirProcesamiento(transaccion, tiempos, () -> {
+            tiempos.ejecutar(Etapa.VALIDACION_INICIAL, () -> validarDatosIniciales(transaccion));
 
-        return crearYProcesarTransaccion(transaccion, datosSensibles, interesDiferido, cuotas);
+            Future<FacturacionComercioDTO> facturacion = consultarFacturacion(tiempos);
+            try {
+                tiempos.ejecutar(Etapa.VALIDACION_TARJETA, () -> validarTarjeta(datosSensibles, transaccion));
+                log.debug("Validaciones completadas exitosamente");
+
+                return crearYProcesarTransaccion(transaccion, datosSensibles, interesDiferido, cuotas,
+                        facturacion, tiempos);
+            } finally {
+                facturacion.cancel(true);
+            }
+        });
     }
 
-    private Transaccion crearYProcesarTransaccion(Transaccion transaccion, String datosSensibles,
+    /**
+     * Valida y guarda en ENV una transacción que se enviará de forma asíncrona. Solo publica
+     * los tiempos de sus etapas: el procesamiento y su resultado se cuentan una vez, al
+     * completarla en {@link #completarPendiente}.
+     */
+    public Transaccion registrarPendiente(Transaccion transaccion) {
+        log.debug("Registrando transacción para procesamiento asíncrono");
+
+        TiemposEtapas tiempos = new TiemposEtapas();
+        String resultado = MetricasTransaccion.RESULTADO_ERROR;
+        try {
+            tiempos.ejecutar(Etapa.VALIDACION_INICIAL, () -> validarDatosIniciales(transaccion));
+            prepararTransaccion(transaccion);
+
+            Transaccion transaccionGuardada = guardar(transaccion, tiempos, Etapa.GUARDADO_INICIAL);
+            registrarAlta(transaccionGuardada);
+            resultado = transaccionGuardada.getEstado();
+            log.debug("Transacción registrada en estado {}: {}", transaccionGuardada.getEstado(),
+                    transaccionGuardada.getCodigoUnicoTransaccion());
+            return transaccionGuardada;
+        } finally {
+            metricasTransaccion.registrarEtapas(tiempos, transaccion.getMarca(), resultado);
+        }
+    }
+
+    /**
+     * Registra en estado ENV un lote ya validado con una única escritura; el orden de la
+     * lista devuelta corresponde al de la recibida.
+     */
+    public List<Transaccion> registrarPendientes(List<Transaccion> transacciones) {
+        log.info("Registrando lote de {} transacciones", transacciones.size());
+        transacciones.forEach(this::prepararTransaccion);
+        List<Transaccion> guardadas = escritorTransacciones.guardarTodos(transacciones);
+        guardadas.forEach(this::registrarAlta);
+        return guardadas;
+    }
+
+    public Transaccion completarPendiente(Transaccion transaccion, String datosSensibles,
+            Boolean interesDiferido, Integer cuotas) {
+        TiemposEtapas tiempos = new TiemposEtapas();
+        return medirProcesamiento(transaccion, tiempos, () -> {
+            Future<FacturacionComercioDTO> facturacion = consultarFacturacion(tiempos);
+            try {
+                try {
+                    tiempos.ejecutar(Etapa.VALIDACION_TARJETA, () -> validarTarjeta(datosSensibles, transaccion));
+                } catch (TarjetaInvalidaException e) {
+                    Transaccion rechazada = transicionar(transaccion, ESTADO_RECHAZADO, tiempos);
+                    log.info("Transacción {} rechazada por tarjeta inválida", rechazada.getCodigoUnicoTransaccion());
+                    return rechazada;
+                }
+                return procesarConGateway(transaccion, datosSensibles, interesDiferido, cuotas, facturacion, tiempos);
+            } finally {
+                facturacion.cancel(true);
+            }
+        });
+    }
+
+    /**
+     * Pasa a la bandeja de salida una transacción registrada en ENV que nunca se envió (por
+     * ejemplo, la que seguía en cola al detener el servicio), para que el reenvío la entregue
+     * al gateway. Antes valida la tarjeta igual que {@link #completarPendiente}: si no es
+     * válida la transacción pasa a REC y no se encola. Devuelve {@code false} si la bandeja
+     * está llena; si la validación falla por otro motivo la excepción se propaga y la
+     * transacción queda en ENV fuera de la bandeja.
+     */
+    public boolean diferirPendiente(Transaccion transaccion, String datosSensibles,
             Boolean interesDiferido, Integer cuotas) {
+        try {
+            validarTarjeta(datosSensibles, transaccion);
+        } catch (TarjetaInvalidaException e) {
+            Transaccion rechazada = transicionar(transaccion, ESTADO_RECHAZADO, new TiemposEtapas());
+            log.info("Transacción {} sin despachar rechazada por tarjeta inválida",
+                    rechazada.getCodigoUnicoTransaccion());
+            return true;
+        }
+        Integer codigoComercio = configuracionService.obtenerConfiguracionActual().codigoComercio();
+        GatewayTransaccionDTO gatewayDTO = prepararGatewayDTO(transaccion, datosSensibles,
+                interesDiferido, cuotas, facturacionComercioCache.obtener(codigoComercio));
+        if (!encolarEnBandeja(gatewayDTO)) {
+            return false;
+        }
+        log.info("Transacción {} sin despachar guardada en la bandeja de salida",
+                transaccion.getCodigoUnicoTransaccion());
+        return true;
+    }
+
+    /**
+     * Ejecuta un procesamiento completo y publica sus tiempos por etapa con la marca
+     * y el resultado final: el estado de la transacción, REC si la tarjeta fue
+     * rechazada antes de persistirla o ERROR ante cualquier otra excepción.
+     */
+    private Transaccion medirProcesamiento(Transaccion transaccion, TiemposEtapas tiempos,
+            Supplier<Transaccion> procesamiento) {
+        String resultado = MetricasTransaccion.RESULTADO_ERROR;
+        try {
+            Transaccion procesada = procesamiento.get();
+            resultado = procesada.getEstado();
+            auditoria.registrar("TRANSACCION_PROCESADA", procesada);
+            return procesada;
+        } catch (TarjetaInvalidaException e) {
+            resultado = ESTADO_RECHAZADO;
+            throw e;
+        } finally {
+            metricasTransaccion.registrar(tiempos, transaccion.getMarca(), resultado);
+            log.debug("Tiempos por etapa: {}", tiempos.resumen());
+        }
+    }
+
+    private Transaccion crearYProcesarTransaccion(Transaccion transaccion, String datosSensibles,
+            Boolean interesDiferido, Integer cuotas, Future<FacturacionComercioDTO> facturacion,
+            TiemposEtapas tiempos) {
+        prepararTransaccion(transaccion);
+
+        Transaccion transaccionGuardada = guardar(transaccion, tiempos, Etapa.GUARDADO_INICIAL);
+        registrarAlta(transaccionGuardada);
+        log.debug("Transacción guardada inicialmente: {}", transaccionGuardada.getCodigoUnicoTransaccion());
+
+        return procesarConGateway(transaccionGuardada, datosSensibles, interesDiferido, cuotas, facturacion, tiempos);
+    }
+
+    /**
+     * Consulta la facturación del comercio en paralelo con la validación de la tarjeta.
+     * Quien la lanza debe cancelarla al terminar para que no sobreviva a la petición.
+     */
+    private Future<FacturacionComercioDTO> consultarFacturacion(TiemposEtapas tiempos) {
+        return ejecutorVirtual.submit(() -> {
+            Integer codigoComercio = tiempos.medir(Etapa.CONFIGURACION,
+                    () -> configuracionService.obtenerConfiguracionActual().codigoComercio());
+            return tiempos.medir(Etapa.FACTURACION, () -> facturacionComercioCache.obtener(codigoComercio));
+        });
+    }
+
+    private static <T> T esperar(Future<T> tarea) {
+        try {
+            return tarea.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Procesamiento interrumpido", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void prepararTransaccion(Transaccion transaccion) {
         transaccion.setTipo(TIPO_PAGO);
         transaccion.setModalidad(MODALIDAD_SIMPLE);
         transaccion.setMoneda("USD");
@@ -128,80 +324,250 @@ public class TransaccionService {
         transaccion.setCodigoUnicoTransaccion(generarCodigoUnico());
         transaccion.setDetalle("Transacción POS - " + transaccion.getMarca());
 
-        log.info("Valores establecidos para transacción: marca={}, monto={}",
+        log.debug("Valores establecidos para transacción: marca={}, monto={}",
                 transaccion.getMarca(), transaccion.getMonto());
-
-        Transaccion transaccionGuardada = transaccionRepository.save(transaccion);
-        log.info("Transacción guardada inicialmente: {}", transaccionGuardada.getCodigoUnicoTransaccion());
-
-        return procesarConGateway(transaccionGuardada, datosSensibles, interesDiferido, cuotas);
     }
 
-    @Transactional
     public Transaccion procesarConGateway(Transaccion transaccion, String datosSensibles,
             Boolean interesDiferido, Integer cuotas) {
+        TiemposEtapas tiempos = new TiemposEtapas();
+        return medirProcesamiento(transaccion, tiempos, () -> {
+            Future<FacturacionComercioDTO> facturacion = consultarFacturacion(tiempos);
+            try {
+                return procesarConGateway(transaccion, datosSensibles, interesDiferido, cuotas, facturacion, tiempos);
+            } finally {
+                facturacion.cancel(true);
+            }
+        });
+    }
+
+    private Transaccion procesarConGateway(Transaccion transaccion, String datosSensibles,
+            Boolean interesDiferido, Integer cuotas, Future<FacturacionComercioDTO> facturacion,
+            TiemposEtapas tiempos) {
+        GatewayTransaccionDTO gatewayDTO = null;
         try {
-            GatewayTransaccionDTO gatewayDTO = prepararGatewayDTO(transaccion, datosSensibles,
-                    interesDiferido, cuotas);
-            log.info("Enviando al gateway DTO con datos de tarjeta incluidos");
+            gatewayDTO = prepararGatewayDTO(transaccion, datosSensibles,
+                    interesDiferido, cuotas, esperar(facturacion));
+
+            // Con transacciones ya en la bandeja el gateway no está respondiendo: se encola
+            // detrás de ellas para conservar el orden y no esperar el timeout
+            if (bandejaSalida.tienePendientes()) {
+                GatewayTransaccionDTO pendiente = gatewayDTO;
+                tiempos.ejecutar(Etapa.SINCRONIZACION_GATEWAY, () -> bandejaSalida.encolar(pendiente));
+                log.info("Transacción {} encolada para sincronización diferida", transaccion.getCodigoUnicoTransaccion());
+                return transaccion;
+            }
 
-            ResponseEntity<String> respuesta = gatewayClient.sincronizarTransaccion(gatewayDTO);
-            log.info("Respuesta del gateway - Status: {}, Body: {}", 
+            log.debug("Enviando al gateway DTO con datos de tarjeta incluidos");
+            GatewayTransaccionDTO enviado = gatewayDTO;
+            ResponseEntity<String> respuesta = tiempos.medir(Etapa.SINCRONIZACION_GATEWAY,
+                    () -> gatewayClient.sincronizarTransaccion(enviado));
+            log.debug("Respuesta del gateway - Status: {}, Body: {}",
                     respuesta.getStatusCode(), respuesta.getBody());
 
-            if (respuesta.getStatusCode().is2xxSuccessful() && 
-                respuesta.getBody() != null && 
-                respuesta.getBody().contains("aceptada")) {
-                transaccion.setEstado(ESTADO_AUTORIZADO);
-                log.info("Transacción autorizada");
-            } else if (respuesta.getStatusCode().value() == 400 || 
-                     (respuesta.getBody() != null && respuesta.getBody().contains("rechazada"))) {
-                transaccion.setEstado(ESTADO_RECHAZADO);
-                log.info("Transacción rechazada");
-            } else if (respuesta.getStatusCode().value() == 202) {
-                log.info("Transacción en proceso de validación");
-            } else {
-                log.warn("Estado inesperado recibido: {}", respuesta.getStatusCode());
-                transaccion.setEstado(ESTADO_RECHAZADO); 
+            String estado = estadoSegunRespuesta(respuesta);
+            if (!ESTADO_ENVIADO.equals(estado)) {
+                transicionar(transaccion, estado, tiempos);
             }
-            
-            transaccion = transaccionRepository.save(transaccion);
-            log.info("Estado de transacción actualizado a: {}", transaccion.getEstado());
+            log.debug("Estado de transacción actualizado a: {}", transaccion.getEstado());
 
             return transaccion;
 
         } catch (Exception e) {
             log.error("Error al procesar con gateway: {}", e.getMessage());
-            transaccion.setEstado(ESTADO_RECHAZADO);
-            transaccion = transaccionRepository.save(transaccion);
+            if (gatewayDTO != null && esFalloConexion(e)) {
+                if (encolarEnBandeja(gatewayDTO)) {
+                    log.info("Gateway no disponible, transacción {} queda en {} hasta reenviarla",
+                            transaccion.getCodigoUnicoTransaccion(), transaccion.getEstado());
+                    return transaccion;
+                }
+                // La petición no salió y no hay dónde guardarla: nadie la enviaría después
+                transicionar(transaccion, ESTADO_RECHAZADO, tiempos);
+                log.warn("Gateway no disponible y bandeja de salida llena, transacción {} rechazada",
+                        transaccion.getCodigoUnicoTransaccion());
+                return transaccion;
+            }
+            if (gatewayDTO != null && esEntregaIncierta(e)) {
+                log.warn("Sin respuesta del gateway para {}, queda en {} hasta la reconciliación",
+                        transaccion.getCodigoUnicoTransaccion(), transaccion.getEstado());
+                return transaccion;
+            }
+            transicionar(transaccion, ESTADO_RECHAZADO, tiempos);
             log.info("Transacción marcada como rechazada debido a error de comunicación");
             return transaccion;
         }
     }
 
+    /**
+     * Reenvía al gateway una transacción de la bandeja de salida. Devuelve {@code false} si
+     * el gateway sigue sin aceptar conexiones.
+     * <p>
+     * Solo se aplica una autorización. Cualquier otra respuesta o error deja la transacción
+     * en ENV para que la resuelva {@link ReconciliadorTransacciones}: un reenvío puede llegar
+     * a un gateway que ya la había recibido, y entonces un 400 o un "rechazada" por
+     * duplicado no significa que el pago se haya rechazado. Si el gateway tampoco le da un
+     * estado final al reconciliador, este la pasa a REC tras
+     * {@code pos.reconciliacion.maximo-sin-respuesta} consultas.
+     */
+    public boolean reenviarPendiente(GatewayTransaccionDTO gatewayDTO) {
+        String estado;
+        try {
+            ResponseEntity<String> respuesta = gatewayClient.sincronizarTransaccion(gatewayDTO);
+            log.debug("Respuesta del gateway al reenvío - Status: {}, Body: {}",
+                    respuesta.getStatusCode(), respuesta.getBody());
+            estado = estadoSegunRespuesta(respuesta);
+        } catch (Exception e) {
+            if (esFalloConexion(e)) {
+                log.warn("Gateway aún no disponible: {}", e.getMessage());
+                return false;
+            }
+            log.warn("Error al reenviar transacción {}, queda en {} hasta la reconciliación: {}",
+                    gatewayDTO.getCodigoUnicoTransaccion(), ESTADO_ENVIADO, e.getMessage());
+            return true;
+        }
+
+        if (!ESTADO_AUTORIZADO.equals(estado)) {
+            log.info("Reenvío de {} respondido con {}, queda en {} hasta la reconciliación",
+                    gatewayDTO.getCodigoUnicoTransaccion(), estado, ESTADO_ENVIADO);
+            return true;
+        }
+        if (cambiarEstado(gatewayDTO.getCodigoUnicoTransaccion(), ESTADO_ENVIADO, estado, null)) {
+            log.info("Transacción {} reenviada, estado actualizado a: {}",
+                    gatewayDTO.getCodigoUnicoTransaccion(), estado);
+        } else {
+            log.warn("Transacción reenviada {} no existe localmente o ya no está en {}",
+                    gatewayDTO.getCodigoUnicoTransaccion(), ESTADO_ENVIADO);
+        }
+        return true;
+    }
+
+    private String estadoSegunRespuesta(ResponseEntity<String> respuesta) {
+        if (respuesta.getStatusCode().is2xxSuccessful() && 
+            respuesta.getBody() != null && 
+            respuesta.getBody().contains("aceptada")) {
+            log.debug("Transacción autorizada");
+            return ESTADO_AUTORIZADO;
+        } else if (respuesta.getStatusCode().value() == 400 || 
+                 (respuesta.getBody() != null && respuesta.getBody().contains("rechazada"))) {
+            log.debug("Transacción rechazada");
+            return ESTADO_RECHAZADO;
+        } else if (respuesta.getStatusCode().value() == 202) {
+            log.debug("Transacción en proceso de validación");
+            return ESTADO_ENVIADO;
+        } else {
+            log.warn("Estado inesperado recibido: {}", respuesta.getStatusCode());
+            return ESTADO_RECHAZADO;
+        }
+    }
+
+    /**
+     * La conexión no se pudo establecer (rechazada, host inalcanzable, timeout de conexión o
+     * sin conexión libre en el pool): la petición no salió y se puede reenviar sin riesgo.
+     */
+    static boolean esFalloConexion(Throwable e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof ConnectException
+                    || causa instanceof UnknownHostException
+                    || causa instanceof NoRouteToHostException
+                    || causa instanceof ConnectTimeoutException
+                    || causa instanceof ConnectionRequestTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Timeout de lectura u otro error de red con la petición ya enviada: el gateway pudo
+     * haberla procesado, así que no se reenvía ni se rechaza. Solo se consulta después de
+     * descartar {@link #esFalloConexion}, que también llega como {@link RetryableException}.
+     */
+    private static boolean esEntregaIncierta(Exception e) {
+        return e instanceof RetryableException || e.getCause() instanceof IOException;
+    }
+
+    private boolean encolarEnBandeja(GatewayTransaccionDTO gatewayDTO) {
+        try {
+            bandejaSalida.encolar(gatewayDTO);
+            return true;
+        } catch (ServicioSaturadoException e) {
+            log.error("No se pudo encolar la transacción: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private Transaccion guardar(Transaccion transaccion, TiemposEtapas tiempos, Etapa etapa) {
+        return tiempos.medir(etapa, () -> escritorTransacciones.guardar(transaccion));
+    }
+
+    /**
+     * Lleva a {@code estadoNuevo} la transacción, que en memoria está en su estado de origen.
+     * Si otro camino se adelantó (por ejemplo el callback del gateway frente a la respuesta
+     * síncrona), no se pisa su cambio: la transacción en memoria toma el estado guardado.
+     */
+    private Transaccion transicionar(Transaccion transaccion, String estadoNuevo, TiemposEtapas tiempos) {
+        String origen = transaccion.getEstado();
+        boolean aplicado = tiempos.medir(Etapa.GUARDADO_ESTADO,
+                () -> cambiarEstado(transaccion.getCodigoUnicoTransaccion(), origen, estadoNuevo, null));
+        if (aplicado) {
+            transaccion.setEstado(estadoNuevo);
+            return transaccion;
+        }
+        transaccionRepository.findByCodigoUnicoTransaccion(transaccion.getCodigoUnicoTransaccion())
+                .ifPresent(guardada -> {
+                    transaccion.setEstado(guardada.getEstado());
+                    transaccion.setDetalle(guardada.getDetalle());
+                });
+        log.info("Transacción {} ya no estaba en {}, se conserva el estado {}",
+                transaccion.getCodigoUnicoTransaccion(), origen, transaccion.getEstado());
+        return transaccion;
+    }
+
+    /**
+     * Aplica la transición {@code origen → estadoNuevo} con un único UPDATE condicional a
+     * través del escritor. Devuelve {@code false} si la transición no está permitida o si la
+     * transacción no existe o ya no está en {@code origen}.
+     */
+    private boolean cambiarEstado(String codigoUnico, String origen, String estadoNuevo, String detalle) {
+        if (origen == null || !origen.equals(origenDe(estadoNuevo))) {
+            return false;
+        }
+        List<EstadoCambiado> cambiados = escritorTransacciones.ejecutar(
+                () -> transaccionRepository.cambiarEstados(List.of(codigoUnico), origen, estadoNuevo, detalle));
+        cambiados.forEach(cambiado -> publicarCambio(cambiado, origen, estadoNuevo));
+        return !cambiados.isEmpty();
+    }
+
+    private static String origenDe(String estado) {
+        return estado != null ? ORIGEN_POR_ESTADO.get(estado) : null;
+    }
+
+    private void publicarCambio(EstadoCambiado cambiado, String origen, String estadoNuevo) {
+        contadoresVentas.registrarTransicion(cambiado.marca(), cambiado.monto(), origen, estadoNuevo);
+        notificadorEstado.publicar(cambiado.codigoUnicoTransaccion(), estadoNuevo);
+    }
+
     private GatewayTransaccionDTO prepararGatewayDTO(Transaccion transaccion, String datosSensibles,
-            Boolean interesDiferido, Integer cuotas) {
+            Boolean interesDiferido, Integer cuotas, FacturacionComercioDTO facturacion) {
         GatewayTransaccionDTO dto = new GatewayTransaccionDTO();
-        Configuracion config = configuracionService.obtenerConfiguracionActual();
+        ConfiguracionActual config = configuracionService.obtenerConfiguracionActual();
 
         ComercioDTO comercio = new ComercioDTO();
-        comercio.setCodigo(config.getCodigoComercio());
-
-        FacturacionComercioDTO facturacion = comercioClient.obtenerFacturacionPorComercio(comercio.getCodigo());
+        comercio.setCodigo(config.codigoComercio());
 
         dto.setComercio(comercio);
         dto.setFacturacionComercio(facturacion);
         dto.setTipo(transaccion.getModalidad());
         dto.setMarca(transaccion.getMarca());
         dto.setDetalle(transaccion.getDetalle());
-        dto.setMonto(transaccion.getMonto());
+        dto.setMonto(transaccion.getMonto().aBigDecimal());
         dto.setCodigoUnicoTransaccion(transaccion.getCodigoUnicoTransaccion());
         dto.setFecha(transaccion.getFecha());
         dto.setEstado(transaccion.getEstado());
         dto.setMoneda(transaccion.getMoneda());
         dto.setPais("EC");
-        dto.setCodigoPos(config.getPk().getCodigo());
-        dto.setModeloPos(config.getPk().getModelo());
+        dto.setCodigoPos(config.codigoPos());
+        dto.setModeloPos(config.modeloPos());
         dto.setTarjeta(datosSensibles);
         dto.setInteresDiferido(interesDiferido);
         dto.setCuotas(cuotas);
@@ -209,37 +575,139 @@ public class TransaccionService {
         return dto;
     }
 
-    @Transactional(readOnly = true)
-    public Transaccion obtenerPorCodigoUnico(String codigoUnicoTransaccion) {
-        return transaccionRepository.findByCodigoUnicoTransaccion(codigoUnicoTransaccion)
-                .orElseThrow(() -> new RuntimeException("Transacción no encontrada"));
+    /**
+     * Estado de la transacción leído con una proyección de cinco columnas: no se carga la
+     * entidad en el contexto de persistencia ni se mapea al DTO del gateway.
+     */
+    public EstadoTransaccionDTO consultarEstado(String codigoUnicoTransaccion) {
+        return transaccionRepository.consultarEstado(codigoUnicoTransaccion)
+                .orElseThrow(() -> new NotFoundException(codigoUnicoTransaccion, "Transaccion"));
     }
 
-    @Transactional
+    /**
+     * Aplica el estado informado por el gateway con un único UPDATE condicionado al estado de
+     * origen. Solo si no cambia ninguna fila se lee la transacción, para distinguir un
+     * callback repetido de uno que no existe o que rompería la máquina de estados.
+     */
     public void actualizarEstadoTransaccion(ActualizacionEstadoDTO actualizacion) {
         log.info("Actualizando estado de transacción: {}", actualizacion.getCodigoUnicoTransaccion());
-        
+
+        String estado = actualizacion.getEstado();
+        if (cambiarEstado(actualizacion.getCodigoUnicoTransaccion(), origenDe(estado), estado,
+                actualizacion.getMensaje())) {
+            log.info("Estado de transacción actualizado a: {}", estado);
+            return;
+        }
+
         Transaccion transaccion = transaccionRepository.findByCodigoUnicoTransaccion(
                 actualizacion.getCodigoUnicoTransaccion())
                 .orElseThrow(() -> new RuntimeException("Transacción no encontrada"));
+        if (Objects.equals(transaccion.getEstado(), estado)) {
+            log.info("La transacción ya estaba en estado {}, no se reescribe", estado);
+            return;
+        }
+        throw new InvalidDataException("Transición de estado no permitida: "
+                + transaccion.getEstado() + " -> " + estado);
+    }
+
+    /**
+     * Aplica un lote de actualizaciones de estado del gateway: un UPDATE condicionado al
+     * estado de origen por cada estado destino, con el mensaje de cada transacción en un
+     * CASE, todos en un único commit.
+     * Solo los códigos que no cambiaron se consultan después para informar el motivo.
+     * Devuelve un resultado por elemento en el orden recibido; si un código se repite
+     * prevalece la última actualización.
+     */
+    public List<ResultadoActualizacionDTO> actualizarEstadosTransacciones(List<ActualizacionEstadoDTO> actualizaciones) {
+        log.info("Actualizando estado de {} transacciones", actualizaciones.size());
+
+        ResultadoActualizacionDTO[] resultados = new ResultadoActualizacionDTO[actualizaciones.size()];
+        Map<String, Integer> posiciones = new LinkedHashMap<>();
+        for (int i = 0; i < actualizaciones.size(); i++) {
+            ActualizacionEstadoDTO actualizacion = actualizaciones.get(i);
+            if (!esActualizacionValida(actualizacion)) {
+                resultados[i] = resultado(actualizacion, RESULTADO_INVALIDA);
+                continue;
+            }
+            Integer anterior = posiciones.put(actualizacion.getCodigoUnicoTransaccion(), i);
+            if (anterior != null) {
+                resultados[anterior] = resultado(actualizaciones.get(anterior), RESULTADO_REEMPLAZADA);
+            }
+        }
+        if (posiciones.isEmpty()) {
+            return Arrays.asList(resultados);
+        }
+
+        Map<GrupoActualizacion, Map<String, String>> grupos = new LinkedHashMap<>();
+        posiciones.forEach((codigo, posicion) -> {
+            ActualizacionEstadoDTO actualizacion = actualizaciones.get(posicion);
+            grupos.computeIfAbsent(new GrupoActualizacion(origenDe(actualizacion.getEstado()), actualizacion.getEstado()),
+                    grupo -> new LinkedHashMap<>()).put(codigo, actualizacion.getMensaje());
+        });
+
+        Map<GrupoActualizacion, List<EstadoCambiado>> cambiados = escritorTransacciones.ejecutar(() -> {
+            Map<GrupoActualizacion, List<EstadoCambiado>> porGrupo = new LinkedHashMap<>();
+            grupos.forEach((grupo, detalles) -> porGrupo.put(grupo, transaccionRepository.cambiarEstadosConDetalle(
+                    detalles, grupo.origen(), grupo.estado())));
+            return porGrupo;
+        });
+
+        Set<String> pendientes = new HashSet<>(posiciones.keySet());
+        cambiados.forEach((grupo, cambios) -> cambios.forEach(cambiado -> {
+            pendientes.remove(cambiado.codigoUnicoTransaccion());
+            int posicion = posiciones.get(cambiado.codigoUnicoTransaccion());
+            resultados[posicion] = resultado(actualizaciones.get(posicion), RESULTADO_ACTUALIZADA);
+            publicarCambio(cambiado, grupo.origen(), grupo.estado());
+        }));
+        log.info("Lote de estados aplicado: {} transacciones actualizadas en {} sentencias",
+                posiciones.size() - pendientes.size(), grupos.size());
+
+        // Solo las que no cambiaron se leen, para explicar el motivo
+        if (!pendientes.isEmpty()) {
+            Map<String, String> estadosActuales = new HashMap<>();
+            for (EstadoActual actual : transaccionRepository.findByCodigoUnicoTransaccionIn(pendientes)) {
+                estadosActuales.put(actual.getCodigoUnicoTransaccion(), actual.getEstado());
+            }
+            for (String codigo : pendientes) {
+                int posicion = posiciones.get(codigo);
+                ActualizacionEstadoDTO actualizacion = actualizaciones.get(posicion);
+                if (!estadosActuales.containsKey(codigo)) {
+                    resultados[posicion] = resultado(actualizacion, RESULTADO_NO_ENCONTRADA);
+                } else if (actualizacion.getEstado().equals(estadosActuales.get(codigo))) {
+                    resultados[posicion] = resultado(actualizacion, RESULTADO_SIN_CAMBIOS);
+                } else {
+                    resultados[posicion] = resultado(actualizacion, RESULTADO_TRANSICION_INVALIDA);
+                }
+            }
+        }
+        return Arrays.asList(resultados);
+    }
+
+    private static boolean esActualizacionValida(ActualizacionEstadoDTO actualizacion) {
+        return actualizacion != null
+                && actualizacion.getCodigoUnicoTransaccion() != null
+                && !actualizacion.getCodigoUnicoTransaccion().isBlank()
+                && ESTADOS_CALLBACK.contains(actualizacion.getEstado())
+                && actualizacion.getMensaje() != null;
+    }
+
+    private static ResultadoActualizacionDTO resultado(ActualizacionEstadoDTO actualizacion, String resultado) {
+        return ResultadoActualizacionDTO.builder()
+                .codigoUnicoTransaccion(actualizacion != null ? actualizacion.getCodigoUnicoTransaccion() : null)
+                .estado(actualizacion != null ? actualizacion.getEstado() : null)
+                .resultado(resultado)
+                .build();
+    }
+
+    private record GrupoActualizacion(String origen, String estado) {
+    }
 
-        transaccion.setEstado(actualizacion.getEstado());
-        transaccion.setDetalle(actualizacion.getMensaje());
-        
-        transaccionRepository.save(transaccion);
-        log.info("Estado de transacción actualizado a: {}", actualizacion.getEstado());
+    private void registrarAlta(Transaccion transaccion) {
+        contadoresVentas.registrarTransicion(transaccion.getMarca(), transaccion.getMonto(),
+                null, transaccion.getEstado());
     }
 
     private String generarCodigoUnico() {
-        LocalDateTime now = LocalDateTime.now();
-        return String.format("TRX%06d-%d-%02d-%02d-%02d-%02d-%02d-%012d",
-                new Random().nextInt(1000000),
-                now.getYear(),
-                now.getMonthValue(),
-                now.getDayOfMonth(),
-                now.getHour(),
-                now.getMinute(),
-                now.getSecond(),
-                1L);
+        return generadorCodigoTransaccion.generar(configuracionService.obtenerConfiguracionActual().codigoPos());
     }
 }
\ No newline at end of file
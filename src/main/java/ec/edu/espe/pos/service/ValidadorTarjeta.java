@@ -0,0 +1,116 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.client.ValidacionTarjetaClient;
+import ec.edu.espe.pos.controller.dto.ValidacionTarjetaDTO;
+import ec.edu.espe.pos.exception.TarjetaInvalidaException;
+
+import feign.FeignException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Valida la tarjeta: primero localmente con {@link PrevalidadorTarjeta}, que rechaza sin
+ * salir del proceso las tarjetas que no pueden ser válidas, y después contra el servicio
+ * remoto protegido por un {@link CircuitoProteccion}.
+ * <p>
+ * Con el circuito abierto no se llama al servicio: según {@code pos.validacion-tarjeta.politica}
+ * se rechaza de inmediato ({@code RECHAZAR}) o se acepta la tarjeta que ya pasó la
+ * validación local ({@code VALIDACION_LOCAL}). Los 4xx del servicio son
+ * respuestas de negocio y no cuentan como fallo del circuito.
+ */
+@Component
+public class ValidadorTarjeta {
+
+    private static final Logger log = LoggerFactory.getLogger(ValidadorTarjeta.class);
+
+    public enum Politica { RECHAZAR, VALIDACION_LOCAL }
+
+    private final ValidacionTarjetaClient validacionTarjetaClient;
+    private final DecodificadorDatosTarjeta decodificadorDatosTarjeta;
+    private final PrevalidadorTarjeta prevalidadorTarjeta;
+    private final CircuitoProteccion circuito;
+    private final Politica politica;
+
+    public ValidadorTarjeta(ValidacionTarjetaClient validacionTarjetaClient,
+            DecodificadorDatosTarjeta decodificadorDatosTarjeta,
+            PrevalidadorTarjeta prevalidadorTarjeta,
+            MeterRegistry registry,
+            @Value("${pos.validacion-tarjeta.politica:RECHAZAR}") Politica politica,
+            @Value("${pos.validacion-tarjeta.circuito.ventana:50}") int tamanoVentana,
+            @Value("${pos.validacion-tarjeta.circuito.minimo-llamadas:20}") int minimoLlamadas,
+            @Value("${pos.validacion-tarjeta.circuito.porcentaje-fallos:50}") int porcentajeFallos,
+            @Value("${pos.validacion-tarjeta.circuito.porcentaje-lentas:80}") int porcentajeLentas,
+            @Value("${pos.validacion-tarjeta.circuito.llamada-lenta:2s}") Duration llamadaLenta,
+            @Value("${pos.validacion-tarjeta.circuito.espera-abierto:30s}") Duration esperaAbierto,
+            @Value("${pos.validacion-tarjeta.circuito.sondas:3}") int sondas) {
+        this.validacionTarjetaClient = validacionTarjetaClient;
+        this.decodificadorDatosTarjeta = decodificadorDatosTarjeta;
+        this.prevalidadorTarjeta = prevalidadorTarjeta;
+        this.politica = politica;
+        this.circuito = new CircuitoProteccion("validacionTarjeta", tamanoVentana, minimoLlamadas,
+                porcentajeFallos, porcentajeLentas, llamadaLenta, esperaAbierto, sondas);
+        Gauge.builder("pos.validacion-tarjeta.circuito.estado", circuito, c -> c.estado().ordinal())
+                .description("Estado del circuito: 0 cerrado, 1 abierto, 2 semiabierto")
+                .register(registry);
+    }
+
+    /**
+     * Devuelve los datos de la tarjeta ya decodificados, para que quien llama no tenga que
+     * volver a leerlos.
+     */
+    public ValidacionTarjetaDTO validar(String datosSensibles, String marca) {
+        try {
+            ValidacionTarjetaDTO validacionDTO = decodificadorDatosTarjeta.decodificar(datosSensibles);
+            prevalidadorTarjeta.prevalidar(validacionDTO, marca);
+
+            CircuitoProteccion.Generacion generacion = circuito.permitir();
+            if (generacion == null) {
+                validarSinServicio();
+                return validacionDTO;
+            }
+
+            ResponseEntity<Void> respuesta = llamarServicio(validacionDTO, generacion);
+            if (respuesta.getStatusCode().value() == 404) {
+                log.error("Error en la validación de la tarjeta: datos inválidos");
+                throw new TarjetaInvalidaException("Datos de tarjeta inválidos");
+            }
+
+            log.debug("Validación de tarjeta exitosa");
+            return validacionDTO;
+        } catch (Exception e) {
+            log.error("Error al validar la tarjeta: {}", e.getMessage());
+            throw new TarjetaInvalidaException(e.getMessage());
+        }
+    }
+
+    private ResponseEntity<Void> llamarServicio(ValidacionTarjetaDTO validacionDTO,
+            CircuitoProteccion.Generacion generacion) {
+        long inicio = System.nanoTime();
+        boolean fallo = true;
+        try {
+            ResponseEntity<Void> respuesta = validacionTarjetaClient.validarTarjeta(validacionDTO);
+            fallo = respuesta.getStatusCode().is5xxServerError();
+            return respuesta;
+        } catch (FeignException e) {
+            fallo = e.status() < 400 || e.status() >= 500;
+            throw e;
+        } finally {
+            circuito.registrar(generacion, fallo, System.nanoTime() - inicio);
+        }
+    }
+
+    private void validarSinServicio() {
+        if (politica == Politica.RECHAZAR) {
+            throw new TarjetaInvalidaException("Servicio de validación de tarjetas no disponible");
+        }
+        log.warn("Servicio de validación de tarjetas no disponible, tarjeta aceptada con validación local");
+    }
+}
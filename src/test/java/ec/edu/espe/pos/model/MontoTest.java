@@ -0,0 +1,84 @@
+package ec.edu.espe.pos.model;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MontoTest {
+
+    private final MontoConverter converter = new MontoConverter();
+
+    @Test
+    void convierteACentavosSinPerderPrecision() {
+        assertThat(Monto.de(new BigDecimal("25.50")).centavos()).isEqualTo(2550);
+        assertThat(Monto.de(new BigDecimal("0.1")).centavos()).isEqualTo(10);
+        assertThat(Monto.de(new BigDecimal("7")).centavos()).isEqualTo(700);
+        assertThat(Monto.de(new BigDecimal("25.500")).centavos()).isEqualTo(2550);
+        assertThat(Monto.de(new BigDecimal("-3.25")).centavos()).isEqualTo(-325);
+        assertThat(Monto.de(new BigDecimal("92233720368547758.07")).centavos()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void conservaNull() {
+        assertThat(Monto.de(null)).isNull();
+    }
+
+    @Test
+    void rechazaMasDeDosDecimales() {
+        assertThatThrownBy(() -> Monto.de(new BigDecimal("0.001")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Monto.de(new BigDecimal("1.005")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rechazaValoresQueNoCabenEnUnLong() {
+        assertThatThrownBy(() -> Monto.de(new BigDecimal("92233720368547758.08")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void vuelveABigDecimalConDosDecimales() {
+        assertThat(Monto.deCentavos(5).aBigDecimal()).isEqualTo(new BigDecimal("0.05"));
+        assertThat(Monto.deCentavos(-105).toString()).isEqualTo("-1.05");
+        assertThat(Monto.deCentavos(0)).isSameAs(Monto.CERO);
+    }
+
+    @Test
+    void sumaYRestaExactas() {
+        Monto diezCentavos = Monto.de(new BigDecimal("0.10"));
+        Monto veinteCentavos = Monto.de(new BigDecimal("0.20"));
+
+        assertThat(diezCentavos.sumar(veinteCentavos)).isEqualTo(Monto.de(new BigDecimal("0.30")));
+        assertThat(diezCentavos.restar(veinteCentavos).centavos()).isEqualTo(-10);
+        assertThatThrownBy(() -> Monto.deCentavos(Long.MAX_VALUE).sumar(Monto.deCentavos(1)))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void elConvertidorRedondeaLoLeidoAlCentavo() {
+        assertThat(converter.convertToEntityAttribute(new BigDecimal("1.005")).centavos()).isEqualTo(101);
+        assertThat(converter.convertToEntityAttribute(new BigDecimal("1.0049999")).centavos()).isEqualTo(100);
+        assertThat(converter.convertToEntityAttribute(new BigDecimal("-1.005")).centavos()).isEqualTo(-101);
+        assertThat(converter.convertToEntityAttribute(new BigDecimal("25.499999999999996")).centavos())
+                .isEqualTo(2550);
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+        assertThat(converter.convertToDatabaseColumn(Monto.deCentavos(2550))).isEqualTo(new BigDecimal("25.50"));
+    }
+
+    @Test
+    void seSerializaComoNumeroJson() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        assertThat(objectMapper.writeValueAsString(Monto.deCentavos(2550))).isEqualTo("25.50");
+        assertThat(objectMapper.readValue("25.5", Monto.class).centavos()).isEqualTo(2550);
+        assertThatThrownBy(() -> objectMapper.readValue("25.555", Monto.class))
+                .isInstanceOf(JsonMappingException.class);
+    }
+}
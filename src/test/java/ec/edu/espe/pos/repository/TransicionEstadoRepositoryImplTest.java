@@ -0,0 +1,144 @@
+package ec.edu.espe.pos.repository;
+
+import ec.edu.espe.pos.model.Monto;
+import ec.edu.espe.pos.model.Transaccion;
+import ec.edu.espe.pos.repository.TransicionEstadoRepository.EstadoCambiado;
+
+import jakarta.persistence.EntityManager;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ejecuta el UPDATE ... RETURNING contra una base SQLite real: el dialecto no lo genera y
+ * solo se puede comprobar con el motor.
+ */
+@SpringBootTest
+@Transactional
+class TransicionEstadoRepositoryImplTest {
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @DynamicPropertySource
+    static void baseTemporal(DynamicPropertyRegistry registro) throws IOException {
+        Path directorio = Files.createTempDirectory("pos-transiciones");
+        registro.add("spring.datasource.url", () -> "jdbc:sqlite:" + directorio.resolve("pos.db"));
+        registro.add("pos.outbox.archivo", () -> directorio.resolve("pos-outbox.dat").toString());
+    }
+
+    @Test
+    void aplicaLaTransicionDesdeElEstadoEsperado() {
+        guardar("TRX0000000001", "VISA", "25.50", "ENV");
+
+        List<EstadoCambiado> cambiados = transaccionRepository.cambiarEstados(
+                List.of("TRX0000000001"), "ENV", "AUT", null);
+
+        assertThat(cambiados).containsExactly(
+                new EstadoCambiado("TRX0000000001", "VISA", Monto.deCentavos(2550)));
+        Transaccion leida = leer("TRX0000000001");
+        assertThat(leida.getEstado()).isEqualTo("AUT");
+        assertThat(leida.getDetalle()).isEqualTo("Pago de prueba");
+    }
+
+    @Test
+    void noCambiaNadaSiOtroProcesoGanoLaCarrera() {
+        guardar("TRX0000000002", "MAST", "10.00", "ENV");
+        assertThat(transaccionRepository.cambiarEstados(List.of("TRX0000000002"), "ENV", "REC", "Rechazada"))
+                .hasSize(1);
+
+        List<EstadoCambiado> cambiados = transaccionRepository.cambiarEstados(
+                List.of("TRX0000000002"), "ENV", "AUT", null);
+
+        assertThat(cambiados).isEmpty();
+        Transaccion leida = leer("TRX0000000002");
+        assertThat(leida.getEstado()).isEqualTo("REC");
+        assertThat(leida.getDetalle()).isEqualTo("Rechazada");
+    }
+
+    @Test
+    void noAplicaUnaTransicionDesdeOtroEstado() {
+        guardar("TRX0000000003", "VISA", "10.00", "ENV");
+
+        List<EstadoCambiado> cambiados = transaccionRepository.cambiarEstados(
+                List.of("TRX0000000003"), "AUT", "REV", "Reverso");
+
+        assertThat(cambiados).isEmpty();
+        Transaccion leida = leer("TRX0000000003");
+        assertThat(leida.getEstado()).isEqualTo("ENV");
+        assertThat(leida.getDetalle()).isEqualTo("Pago de prueba");
+    }
+
+    @Test
+    void devuelveMarcaYCentavosDeCadaFilaCambiada() {
+        guardar("TRX0000000004", "VISA", "0.10", "AUT");
+        guardar("TRX0000000005", "DINE", "1234567.89", "AUT");
+        guardar("TRX0000000006", "AMEX", "99.99", "ENV");
+
+        List<EstadoCambiado> cambiados = transaccionRepository.cambiarEstados(
+                List.of("TRX0000000004", "TRX0000000005", "TRX0000000006"), "AUT", "ANU", "Anulada");
+
+        assertThat(cambiados).containsExactlyInAnyOrder(
+                new EstadoCambiado("TRX0000000004", "VISA", Monto.deCentavos(10)),
+                new EstadoCambiado("TRX0000000005", "DINE", Monto.deCentavos(123456789)));
+        assertThat(leer("TRX0000000004").getDetalle()).isEqualTo("Anulada");
+        assertThat(leer("TRX0000000006").getEstado()).isEqualTo("ENV");
+    }
+
+    @Test
+    void aplicaUnDetallePorTransaccionEnUnaSolaSentencia() {
+        guardar("TRX0000000007", "VISA", "5.00", "ENV");
+        guardar("TRX0000000008", "VISA", "7.00", "ENV");
+        Map<String, String> detalles = new LinkedHashMap<>();
+        detalles.put("TRX0000000007", "Aprobada 001");
+        detalles.put("TRX0000000008", "Aprobada 002");
+
+        List<EstadoCambiado> cambiados = transaccionRepository.cambiarEstadosConDetalle(detalles, "ENV", "AUT");
+
+        assertThat(cambiados).extracting(EstadoCambiado::codigoUnicoTransaccion)
+                .containsExactlyInAnyOrder("TRX0000000007", "TRX0000000008");
+        assertThat(leer("TRX0000000007").getDetalle()).isEqualTo("Aprobada 001");
+        assertThat(leer("TRX0000000008").getDetalle()).isEqualTo("Aprobada 002");
+    }
+
+    private void guardar(String codigoUnico, String marca, String monto, String estado) {
+        Transaccion transaccion = new Transaccion();
+        transaccion.setTipo("PAG");
+        transaccion.setMarca(marca);
+        transaccion.setModalidad("SIM");
+        transaccion.setDetalle("Pago de prueba");
+        transaccion.setMonto(Monto.de(new BigDecimal(monto)));
+        transaccion.setCodigoUnicoTransaccion(codigoUnico);
+        transaccion.setFecha(LocalDateTime.now());
+        transaccion.setEstado(estado);
+        transaccion.setEstadoRecibo("PEN");
+        transaccion.setMoneda("USD");
+        transaccionRepository.saveAndFlush(transaccion);
+    }
+
+    private Transaccion leer(String codigoUnico) {
+        entityManager.clear();
+        return entityManager.createQuery(
+                "select t from Transaccion t where t.codigoUnicoTransaccion = :codigo", Transaccion.class)
+                .setParameter("codigo", codigoUnico)
+                .getSingleResult();
+    }
+}
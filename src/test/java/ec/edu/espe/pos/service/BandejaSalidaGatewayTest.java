@@ -0,0 +1,136 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.controller.dto.GatewayTransaccionDTO;
+import ec.edu.espe.pos.exception.ServicioSaturadoException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BandejaSalidaGatewayTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder().findAndAddModules().build();
+    private static final String CLAVE = Base64.getEncoder().encodeToString(new byte[32]);
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void caidaDuranteCompactacionConservaLosPendientes() throws Exception {
+        Path archivo = directorio.resolve("outbox.dat");
+        BandejaSalidaGateway bandeja = abrir(archivo);
+        int total = llenar(bandeja);
+        int confirmadas = total - total / 3;
+        for (int i = 0; i < confirmadas; i++) {
+            bandeja.confirmar(bandeja.primero().orElseThrow());
+        }
+
+        bandeja.alCompactar = () -> {
+            throw new IllegalStateException("caída simulada");
+        };
+        assertThatThrownBy(() -> bandeja.encolar(transaccion(total)))
+                .hasMessage("caída simulada");
+
+        BandejaSalidaGateway reabierta = abrir(archivo);
+        assertThat(vaciar(reabierta)).containsExactlyElementsOf(codigos(confirmadas, total));
+        reabierta.cerrar();
+        bandeja.cerrar();
+    }
+
+    @Test
+    void compactaCuandoElDestinoNoSeSolapa() throws Exception {
+        Path archivo = directorio.resolve("outbox.dat");
+        BandejaSalidaGateway bandeja = abrir(archivo);
+        int total = llenar(bandeja);
+        int confirmadas = total - total / 3;
+        for (int i = 0; i < confirmadas; i++) {
+            bandeja.confirmar(bandeja.primero().orElseThrow());
+        }
+
+        bandeja.encolar(transaccion(total));
+
+        List<String> esperados = codigos(confirmadas, total + 1);
+        bandeja.cerrar();
+        BandejaSalidaGateway reabierta = abrir(archivo);
+        assertThat(vaciar(reabierta)).containsExactlyElementsOf(esperados);
+        reabierta.cerrar();
+    }
+
+    @Test
+    void noCompactaSiElDestinoSeSolapa() throws Exception {
+        Path archivo = directorio.resolve("outbox.dat");
+        BandejaSalidaGateway bandeja = abrir(archivo);
+        int total = llenar(bandeja);
+        bandeja.confirmar(bandeja.primero().orElseThrow());
+        bandeja.alCompactar = () -> {
+            throw new AssertionError("no debe compactar");
+        };
+
+        assertThatThrownBy(() -> bandeja.encolar(transaccion(total)))
+                .isInstanceOf(ServicioSaturadoException.class);
+
+        bandeja.cerrar();
+        BandejaSalidaGateway reabierta = abrir(archivo);
+        assertThat(vaciar(reabierta)).containsExactlyElementsOf(codigos(1, total));
+        reabierta.cerrar();
+    }
+
+    private BandejaSalidaGateway abrir(Path archivo) {
+        return new BandejaSalidaGateway(OBJECT_MAPPER, new SimpleMeterRegistry(), archivo,
+                DataSize.ofKilobytes(8), CLAVE);
+    }
+
+    private static int llenar(BandejaSalidaGateway bandeja) {
+        int encoladas = 0;
+        while (true) {
+            try {
+                bandeja.encolar(transaccion(encoladas));
+            } catch (ServicioSaturadoException e) {
+                return encoladas;
+            }
+            encoladas++;
+        }
+    }
+
+    private static List<String> vaciar(BandejaSalidaGateway bandeja) {
+        List<String> leidos = new ArrayList<>();
+        Optional<BandejaSalidaGateway.Registro> registro;
+        while ((registro = bandeja.primero()).isPresent()) {
+            leidos.add(bandeja.leer(registro.get()).getCodigoUnicoTransaccion());
+            bandeja.confirmar(registro.get());
+        }
+        return leidos;
+    }
+
+    private static List<String> codigos(int desde, int hasta) {
+        List<String> codigos = new ArrayList<>();
+        for (int i = desde; i < hasta; i++) {
+            codigos.add(codigo(i));
+        }
+        return codigos;
+    }
+
+    private static GatewayTransaccionDTO transaccion(int numero) {
+        GatewayTransaccionDTO transaccion = new GatewayTransaccionDTO();
+        transaccion.setCodigoUnicoTransaccion(codigo(numero));
+        transaccion.setMarca("VISA");
+        return transaccion;
+    }
+
+    private static String codigo(int numero) {
+        return String.format("TRX%07d", numero);
+    }
+}
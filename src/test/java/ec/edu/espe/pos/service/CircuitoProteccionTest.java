@@ -0,0 +1,146 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.service.CircuitoProteccion.Estado;
+import ec.edu.espe.pos.service.CircuitoProteccion.Generacion;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitoProteccionTest {
+
+    private static final Duration RAPIDA = Duration.ofMillis(10);
+    private static final Duration LENTA = Duration.ofSeconds(2);
+    private static final Duration ESPERA_ABIERTO = Duration.ofSeconds(30);
+
+    private final AtomicLong reloj = new AtomicLong();
+    // Ventana de 10, mínimo 5 llamadas, 50 % de fallos, 80 % de lentas (desde 1 s), 2 sondas
+    private final CircuitoProteccion circuito = new CircuitoProteccion("prueba", 10, 5, 50, 80,
+            Duration.ofSeconds(1), ESPERA_ABIERTO, 2, reloj::get);
+
+    @Test
+    void noEvaluaLosUmbralesAntesDelMinimoDeLlamadas() {
+        llamar(4, true, RAPIDA);
+        assertThat(circuito.estado()).isEqualTo(Estado.CERRADO);
+
+        llamar(1, true, RAPIDA);
+        assertThat(circuito.estado()).isEqualTo(Estado.ABIERTO);
+    }
+
+    @Test
+    void abreAlAlcanzarLaTasaDeFallos() {
+        llamar(5, false, RAPIDA);
+        llamar(4, true, RAPIDA);
+        assertThat(circuito.estado()).isEqualTo(Estado.CERRADO);
+
+        llamar(1, true, RAPIDA);
+        assertThat(circuito.estado()).isEqualTo(Estado.ABIERTO);
+    }
+
+    @Test
+    void laVentanaSoloCuentaLasUltimasLlamadas() {
+        llamar(6, false, RAPIDA);
+        llamar(4, true, RAPIDA);
+        llamar(10, false, RAPIDA);
+        // Con los cuatro fallos anteriores serían 8 de 10; ya salieron de la ventana
+        llamar(4, true, RAPIDA);
+        assertThat(circuito.estado()).isEqualTo(Estado.CERRADO);
+
+        llamar(1, true, RAPIDA);
+        assertThat(circuito.estado()).isEqualTo(Estado.ABIERTO);
+    }
+
+    @Test
+    void abrePorLlamadasLentasAunqueSeanExitosas() {
+        llamar(5, false, LENTA);
+        assertThat(circuito.estado()).isEqualTo(Estado.ABIERTO);
+    }
+
+    @Test
+    void abiertoRechazaHastaQueVenceLaEspera() {
+        abrir();
+        assertThat(circuito.permitir()).isNull();
+
+        reloj.addAndGet(ESPERA_ABIERTO.minusMillis(1).toNanos());
+        assertThat(circuito.permitir()).isNull();
+
+        reloj.addAndGet(Duration.ofMillis(1).toNanos());
+        assertThat(circuito.permitir()).isNotNull();
+        assertThat(circuito.estado()).isEqualTo(Estado.SEMIABIERTO);
+    }
+
+    @Test
+    void semiabiertoSoloDejaPasarLasSondas() {
+        esperarApertura();
+
+        assertThat(circuito.permitir()).isNotNull();
+        assertThat(circuito.permitir()).isNotNull();
+        assertThat(circuito.permitir()).isNull();
+        assertThat(circuito.estado()).isEqualTo(Estado.SEMIABIERTO);
+    }
+
+    @Test
+    void semiabiertoCierraSiTodasLasSondasSalenBien() {
+        esperarApertura();
+        Generacion primera = circuito.permitir();
+        Generacion segunda = circuito.permitir();
+
+        circuito.registrar(primera, false, RAPIDA.toNanos());
+        assertThat(circuito.estado()).isEqualTo(Estado.SEMIABIERTO);
+        circuito.registrar(segunda, false, RAPIDA.toNanos());
+        assertThat(circuito.estado()).isEqualTo(Estado.CERRADO);
+    }
+
+    @Test
+    void semiabiertoReabreAlPrimerFallo() {
+        esperarApertura();
+        Generacion sonda = circuito.permitir();
+
+        circuito.registrar(sonda, true, RAPIDA.toNanos());
+
+        assertThat(circuito.estado()).isEqualTo(Estado.ABIERTO);
+        assertThat(circuito.permitir()).isNull();
+    }
+
+    @Test
+    void unaSondaLentaTambienReabre() {
+        esperarApertura();
+        Generacion sonda = circuito.permitir();
+
+        circuito.registrar(sonda, false, LENTA.toNanos());
+
+        assertThat(circuito.estado()).isEqualTo(Estado.ABIERTO);
+    }
+
+    @Test
+    void unResultadoTardioNoAlteraUnEstadoPosterior() {
+        Generacion tardia = circuito.permitir();
+        esperarApertura();
+        assertThat(circuito.permitir()).isNotNull();
+
+        circuito.registrar(tardia, true, LENTA.toNanos());
+
+        assertThat(circuito.estado()).isEqualTo(Estado.SEMIABIERTO);
+    }
+
+    private void abrir() {
+        llamar(5, true, RAPIDA);
+        assertThat(circuito.estado()).isEqualTo(Estado.ABIERTO);
+    }
+
+    private void esperarApertura() {
+        abrir();
+        reloj.addAndGet(ESPERA_ABIERTO.toNanos());
+    }
+
+    private void llamar(int veces, boolean fallo, Duration duracion) {
+        for (int i = 0; i < veces; i++) {
+            Generacion generacion = circuito.permitir();
+            assertThat(generacion).isNotNull();
+            circuito.registrar(generacion, fallo, duracion.toNanos());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ec.edu.espe.pos.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeduplicadorCallbacksTest {
+
+    private final DeduplicadorCallbacks deduplicador = new DeduplicadorCallbacks(1000, Duration.ofHours(1));
+
+    @Test
+    void unCallbackNuevoNoTieneRespuestaPrevia() {
+        assertThat(deduplicador.respuestaPrevia("TRX0000000001", "AUT", "Aprobada")).isNull();
+    }
+
+    @Test
+    void unCallbackRepetidoRecibeLaMismaRespuesta() {
+        deduplicador.registrar("TRX0000000001", "REC", "Fondos insuficientes", 400);
+
+        assertThat(deduplicador.respuestaPrevia("TRX0000000001", "REC", "Fondos insuficientes")).isEqualTo(400);
+    }
+
+    @Test
+    void otroEstadoOMensajeSeTrataComoNuevo() {
+        deduplicador.registrar("TRX0000000001", "AUT", "Aprobada", 201);
+
+        assertThat(deduplicador.respuestaPrevia("TRX0000000001", "REC", "Aprobada")).isNull();
+        assertThat(deduplicador.respuestaPrevia("TRX0000000001", "AUT", "Aprobada por reintento")).isNull();
+        assertThat(deduplicador.respuestaPrevia("TRX0000000002", "AUT", "Aprobada")).isNull();
+    }
+}
@@ -0,0 +1,115 @@
+package ec.edu.espe.pos.service;
+
+import ec.edu.espe.pos.controller.dto.ValidacionTarjetaDTO;
+import ec.edu.espe.pos.exception.TarjetaInvalidaException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PrevalidadorTarjetaTest {
+
+    private static final Clock RELOJ = Clock.fixed(Instant.parse("2026-10-17T12:00:00Z"), ZoneOffset.UTC);
+
+    private final PrevalidadorTarjeta prevalidador =
+            new PrevalidadorTarjeta(new ClassPathResource("bines.csv"), RELOJ);
+
+    @Test
+    void luhnAceptaNumerosValidosDeCadaLongitud() {
+        assertThat(PrevalidadorTarjeta.luhnValido("4111111111111111")).isTrue();
+        assertThat(PrevalidadorTarjeta.luhnValido("5555555555554444")).isTrue();
+        assertThat(PrevalidadorTarjeta.luhnValido("378282246310005")).isTrue();
+        assertThat(PrevalidadorTarjeta.luhnValido("30569309025904")).isTrue();
+    }
+
+    @Test
+    void luhnRechazaUnDigitoAlterado() {
+        assertThat(PrevalidadorTarjeta.luhnValido("4111111111111112")).isFalse();
+        assertThat(PrevalidadorTarjeta.luhnValido("5555555555554445")).isFalse();
+    }
+
+    @Test
+    void aceptaTarjetaVigenteDeLaMarcaDeclarada() {
+        assertThatCode(() -> prevalidador.prevalidar(tarjeta("4111111111111111", "12/30", "123"), "VISA"))
+                .doesNotThrowAnyException();
+        assertThatCode(() -> prevalidador.prevalidar(tarjeta("378282246310005", "10/26", "1234"), "AMEX"))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void aceptaUnBinSinComprobarLuhn() {
+        assertThatCode(() -> prevalidador.prevalidar(tarjeta("411111", "12/30", "123"), "VISA"))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void rechazaNumeroQueNoCumpleLuhn() {
+        assertThatThrownBy(() -> prevalidador.prevalidar(tarjeta("4111111111111112", "12/30", "123"), "VISA"))
+                .isInstanceOf(TarjetaInvalidaException.class);
+    }
+
+    @Test
+    void rechazaBinDesconocido() {
+        assertThatThrownBy(() -> prevalidador.prevalidar(tarjeta("6011111111111117", "12/30", "123"), null))
+                .isInstanceOf(TarjetaInvalidaException.class);
+    }
+
+    @Test
+    void rechazaTarjetaDeOtraMarca() {
+        assertThatThrownBy(() -> prevalidador.prevalidar(tarjeta("4111111111111111", "12/30", "123"), "MSCD"))
+                .isInstanceOf(TarjetaInvalidaException.class);
+    }
+
+    @Test
+    void rechazaTarjetaCaducadaOFechaInvalida() {
+        assertThatThrownBy(() -> prevalidador.prevalidar(tarjeta("4111111111111111", "09/26", "123"), "VISA"))
+                .isInstanceOf(TarjetaInvalidaException.class);
+        assertThatThrownBy(() -> prevalidador.prevalidar(tarjeta("4111111111111111", "13/30", "123"), "VISA"))
+                .isInstanceOf(TarjetaInvalidaException.class);
+    }
+
+    @Test
+    void rechazaFormatoInvalido() {
+        assertThatThrownBy(() -> prevalidador.prevalidar(tarjeta("4111-1111", "12/30", "123"), "VISA"))
+                .isInstanceOf(TarjetaInvalidaException.class);
+        assertThatThrownBy(() -> prevalidador.prevalidar(tarjeta("4111111111111111", "12/30", "12"), "VISA"))
+                .isInstanceOf(TarjetaInvalidaException.class);
+    }
+
+    @Test
+    void buscaLaMarcaEnLosBordesDeCadaRango() {
+        assertThat(prevalidador.marcaDelBin("222100")).isEqualTo("MSCD");
+        assertThat(prevalidador.marcaDelBin("272099")).isEqualTo("MSCD");
+        assertThat(prevalidador.marcaDelBin("272100")).isNull();
+        assertThat(prevalidador.marcaDelBin("222099")).isNull();
+        assertThat(prevalidador.marcaDelBin("100000")).isNull();
+        assertThat(prevalidador.marcaDelBin("400000")).isEqualTo("VISA");
+        assertThat(prevalidador.marcaDelBin("499999")).isEqualTo("VISA");
+    }
+
+    @Test
+    void rechazaUnaTablaConRangosSolapados() {
+        ByteArrayResource tabla = new ByteArrayResource(
+                "400000,449999,VISA\n440000,459999,MSCD\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> new PrevalidadorTarjeta(tabla, RELOJ))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static ValidacionTarjetaDTO tarjeta(String numero, String fechaCaducidad, String cvv) {
+        ValidacionTarjetaDTO tarjeta = new ValidacionTarjetaDTO();
+        tarjeta.setNumero(numero);
+        tarjeta.setFechaCaducidad(fechaCaducidad);
+        tarjeta.setCvv(cvv);
+        return tarjeta;
+    }
+}